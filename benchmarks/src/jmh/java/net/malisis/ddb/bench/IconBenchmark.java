@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDBIcon;
+
+/**
+ * Frame extraction of {@link DDBIcon#loadSpriteFrames(net.minecraft.client.resources.IResource, int)} for each of the <code>rock</code>,
+ * <code>prismarine</code> and <code>moon</code> textures of the example pack.
+ *
+ * @author Ordinastie
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IconBenchmark
+{
+	@Param({ "rock", "prismarine", "moon" })
+	public String texture;
+
+	@Param({ "1", "5" })
+	public int mipmapLevels;
+
+	private ZipFile zipFile;
+	private DDBIcon icon;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		Headless.init();
+		zipFile = new ZipFile(Headless.getExamplePack());
+		icon = new DDBIcon(texture, new BlockPack(BlockPack.Type.ZIP, "example", zipFile), texture);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		zipFile.close();
+	}
+
+	@Benchmark
+	public int loadSpriteFrames() throws IOException
+	{
+		icon.clearFramesTextureData();
+		icon.loadSpriteFrames(null, mipmapLevels);
+		return icon.getFrameCount();
+	}
+}
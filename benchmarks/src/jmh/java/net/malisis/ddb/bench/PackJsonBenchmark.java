@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import net.malisis.ddb.BlockDescriptor;
+import net.malisis.ddb.json.BlockPackJsonReader;
+
+/**
+ * Parsing of the example pack definition and creation of its {@link BlockDescriptor BlockDescriptors}.
+ *
+ * @author Ordinastie
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackJsonBenchmark
+{
+	private byte[] json;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		Headless.init();
+		json = Headless.readExample("example.json");
+	}
+
+	private JsonReader reader()
+	{
+		JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+		reader.setLenient(true);
+		return reader;
+	}
+
+	@Benchmark
+	public JsonElement parseTree()
+	{
+		return new JsonParser().parse(reader());
+	}
+
+	@Benchmark
+	public List<BlockDescriptor> readDescriptorsClient() throws IOException
+	{
+		return BlockPackJsonReader.readDescriptors(reader(), true);
+	}
+
+	@Benchmark
+	public List<BlockDescriptor> readDescriptorsServer() throws IOException
+	{
+		return BlockPackJsonReader.readDescriptors(reader(), false);
+	}
+
+	@Benchmark
+	public void buildDescriptors(Blackhole bh) throws IOException
+	{
+		for (BlockDescriptor desc : BlockPackJsonReader.readDescriptors(reader(), true))
+			bh.consume(desc.compact());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.malisis.ddb.DDBRecipe;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+
+/**
+ * Creation of shaped and shapeless recipes through {@link DDBRecipe}, with item and ore dictionary ingredients.
+ *
+ * @author Ordinastie
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeBenchmark
+{
+	private ItemStack output;
+	private DDBRecipe shaped;
+	private DDBRecipe shapedOre;
+	private DDBRecipe shapeless;
+
+	@Setup
+	public void setup()
+	{
+		Headless.init();
+		output = new ItemStack(Blocks.STONE);
+		shaped = recipe(false, new String[][] { { "minecraft:planks@*", "minecraft:planks", "minecraft:planks@3" },
+				{ "", "minecraft:stick", "" }, { "", "minecraft:stick", "" } });
+		shapedOre = recipe(false, new String[][] { { "plankWood", "plankWood" }, { "plankWood", "plankWood" } });
+		shapeless = recipe(true, new String[][] { { "stairWood", "minecraft:glowstone" } });
+	}
+
+	private DDBRecipe recipe(boolean isShapeless, String[][] items)
+	{
+		DDBRecipe recipe = new DDBRecipe();
+		recipe.shapeless = isShapeless;
+		recipe.items = items;
+		return recipe;
+	}
+
+	private IRecipe create(DDBRecipe recipe)
+	{
+		List<String> errors = new ArrayList<>(0);
+		return recipe.createRecipe(output, errors);
+	}
+
+	@Benchmark
+	public IRecipe shaped()
+	{
+		return create(shaped);
+	}
+
+	@Benchmark
+	public IRecipe shapedOre()
+	{
+		return create(shapedOre);
+	}
+
+	@Benchmark
+	public IRecipe shapeless()
+	{
+		return create(shapeless);
+	}
+}
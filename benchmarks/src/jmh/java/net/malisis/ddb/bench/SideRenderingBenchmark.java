@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.malisis.ddb.BlockDescriptor;
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.BlockType;
+import net.malisis.ddb.block.DDBBlock;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * {@link DDBBlock#shouldSideBeRendered(IBlockState, net.minecraft.world.IBlockAccess, BlockPos, EnumFacing)} for all the sides of a
+ * block surrounded by the same block, a stone block and air.
+ *
+ * @author Ordinastie
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SideRenderingBenchmark
+{
+	@Param({ "STANDARD", "CONNECTED" })
+	public BlockType type;
+
+	private DDBBlock block;
+	private IBlockState state;
+	private StandInBlockAccess world;
+	private BlockPos pos = new BlockPos(0, 64, 0);
+
+	@Setup
+	public void setup()
+	{
+		Headless.init();
+
+		BlockDescriptor descriptor = new BlockDescriptor();
+		descriptor.name = "bench_" + type.name().toLowerCase();
+		descriptor.type = type;
+		descriptor.opaque = type != BlockType.CONNECTED;
+		descriptor.translucent = type == BlockType.CONNECTED;
+		block = new DDBBlock(new BlockPack(BlockPack.Type.FOLDER, "bench", null), descriptor);
+		state = block.getDefaultState();
+
+		world = new StandInBlockAccess().set(pos, state)
+										.set(pos.east(), state)
+										.set(pos.west(), state)
+										.set(pos.north(), Blocks.STONE.getDefaultState());
+	}
+
+	@Benchmark
+	public void shouldSideBeRendered(Blackhole bh)
+	{
+		for (EnumFacing side : EnumFacing.VALUES)
+			bh.consume(block.shouldSideBeRendered(state, world, pos, side));
+	}
+}
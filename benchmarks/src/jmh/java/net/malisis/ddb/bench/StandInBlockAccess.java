@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Biomes;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Minimal {@link IBlockAccess} stand-in holding a few block states, air everywhere else.
+ *
+ * @author Ordinastie
+ *
+ */
+public class StandInBlockAccess implements IBlockAccess
+{
+	private final Map<BlockPos, IBlockState> states = new HashMap<>();
+
+	public StandInBlockAccess set(BlockPos pos, IBlockState state)
+	{
+		states.put(pos, state);
+		return this;
+	}
+
+	@Override
+	public TileEntity getTileEntity(BlockPos pos)
+	{
+		return null;
+	}
+
+	@Override
+	public int getCombinedLight(BlockPos pos, int lightValue)
+	{
+		return 15 << 20 | 15 << 4;
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos)
+	{
+		IBlockState state = states.get(pos);
+		return state != null ? state : Blocks.AIR.getDefaultState();
+	}
+
+	@Override
+	public boolean isAirBlock(BlockPos pos)
+	{
+		return !states.containsKey(pos);
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos)
+	{
+		return Biomes.PLAINS;
+	}
+
+	@Override
+	public int getStrongPower(BlockPos pos, EnumFacing direction)
+	{
+		return 0;
+	}
+
+	@Override
+	public WorldType getWorldType()
+	{
+		return WorldType.DEFAULT;
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default)
+	{
+		return getBlockState(pos).isSideSolid(this, pos, side);
+	}
+}
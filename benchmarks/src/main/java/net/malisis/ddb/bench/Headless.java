@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.IOUtils;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.IFMLSidedHandler;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Sets up just enough of Minecraft and FML for the benchmarks to run outside of the game.
+ *
+ * @author Ordinastie
+ *
+ */
+public final class Headless
+{
+	private static boolean initialized = false;
+
+	private Headless()
+	{}
+
+	/**
+	 * Registers the vanilla blocks and items, and installs a stand-in {@link IFMLSidedHandler} reporting a dedicated server, so that
+	 * blocks can be created without any client code.
+	 */
+	public static void init()
+	{
+		init(Side.SERVER);
+	}
+
+	/**
+	 * Registers the vanilla blocks and items, and installs a stand-in {@link IFMLSidedHandler} reporting the specified <i>side</i>.<br>
+	 * With {@link Side#CLIENT}, blocks create their icons, but nothing is ever uploaded.
+	 *
+	 * @param side the side
+	 */
+	public static synchronized void init(Side side)
+	{
+		if (initialized)
+			return;
+
+		Bootstrap.register();
+		try
+		{
+			Field field = FMLCommonHandler.class.getDeclaredField("sidedDelegate");
+			field.setAccessible(true);
+			field.set(FMLCommonHandler.instance(), Proxy.newProxyInstance(Headless.class.getClassLoader(),
+					new Class<?>[] { IFMLSidedHandler.class }, (proxy, method, args) -> {
+						if (method.getName().equals("getSide"))
+							return side;
+						return defaultValue(method.getReturnType());
+					}));
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("Could not install the stand-in sided handler", e);
+		}
+		initialized = true;
+	}
+
+	private static Object defaultValue(Class<?> type)
+	{
+		if (type == boolean.class)
+			return false;
+		if (type == int.class)
+			return 0;
+		if (type == long.class)
+			return 0L;
+		if (type == float.class)
+			return 0F;
+		if (type == double.class)
+			return 0D;
+		return null;
+	}
+
+	/**
+	 * Gets the example pack shipped with the project.<br>
+	 * Its location is given by the <code>ddb.example</code> system property, set by the build.
+	 *
+	 * @return the file
+	 */
+	public static File getExamplePack()
+	{
+		File file = new File(System.getProperty("ddb.example", "../example.zip"));
+		if (!file.isFile())
+			throw new IllegalStateException("Example pack not found : " + file.getAbsolutePath());
+		return file;
+	}
+
+	/**
+	 * Reads an entry of the example pack into memory.
+	 *
+	 * @param path the path
+	 * @return the bytes
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static byte[] readExample(String path) throws IOException
+	{
+		try (ZipFile zipFile = new ZipFile(getExamplePack()))
+		{
+			return IOUtils.toByteArray(zipFile.getInputStream(zipFile.getEntry(path)));
+		}
+	}
+}
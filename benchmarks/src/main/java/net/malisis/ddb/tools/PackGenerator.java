@@ -0,0 +1,331 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.tools;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.annotations.SerializedName;
+
+import net.malisis.ddb.BlockType;
+
+/**
+ * Generates synthetic DDB packs of a given size and {@link BlockType} mix, for scaling measurements.<br>
+ * Usage : <code>PackGenerator &lt;outDir&gt; &lt;blocks&gt; [folder|zip|both] [type=weight,...] [animatedPercent]</code>
+ *
+ * @author Ordinastie
+ *
+ */
+public class PackGenerator
+{
+	private static final String[] COLORS = { "white", "orange", "magenta", "lightBlue", "yellow", "lime", "pink", "gray", "silver", "cyan",
+			"purple", "blue", "brown", "green", "red", "black" };
+	private static final String[] INGREDIENTS = { "minecraft:cobblestone", "minecraft:stone", "minecraft:planks", "minecraft:glass",
+			"minecraft:sand", "minecraft:gravel", "minecraft:dirt", "minecraft:wool" };
+	private static final int ANIMATION_FRAMES = 4;
+
+	public enum Layout
+	{
+		FOLDER,
+		ZIP,
+		BOTH
+	}
+
+	private final String name;
+	private final int blockCount;
+	private final Map<BlockType, Integer> mix;
+	private final int animatedPercent;
+	private final Random random = new Random(0);
+	private final Map<String, byte[]> files = new LinkedHashMap<>();
+	private final List<byte[]> textures = new ArrayList<>();
+	private final List<byte[]> animatedTextures = new ArrayList<>();
+
+	public PackGenerator(String name, int blockCount, Map<BlockType, Integer> mix, int animatedPercent)
+	{
+		this.name = name;
+		this.blockCount = blockCount;
+		this.mix = mix;
+		this.animatedPercent = animatedPercent;
+	}
+
+	/**
+	 * Generates the content of the pack in memory.
+	 *
+	 * @return this {@link PackGenerator}
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public PackGenerator generate() throws IOException
+	{
+		//a few distinct images, reused by all the textures
+		for (int i = 0; i < 8; i++)
+		{
+			textures.add(png(16, 16));
+			animatedTextures.add(png(16, 16 * ANIMATION_FRAMES));
+		}
+
+		List<BlockType> types = new ArrayList<>();
+		for (Map.Entry<BlockType, Integer> entry : mix.entrySet())
+			for (int i = 0; i < entry.getValue(); i++)
+				types.add(entry.getKey());
+
+		JsonObject json = new JsonObject();
+		StringBuilder lang = new StringBuilder();
+		for (int i = 0; i < blockCount; i++)
+		{
+			BlockType type = types.get(i % types.size());
+			String blockName = "block" + i;
+			json.add(blockName, descriptor(blockName, type, i));
+			lang.append("tile.").append(name).append('_').append(blockName).append(".name=Block ").append(i).append('\n');
+		}
+
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		files.put(name + ".json", gson.toJson(json).getBytes(StandardCharsets.UTF_8));
+		files.put("lang/en_US.lang", lang.toString().getBytes(StandardCharsets.UTF_8));
+		return this;
+	}
+
+	private JsonObject descriptor(String blockName, BlockType type, int index) throws IOException
+	{
+		JsonObject json = new JsonObject();
+		json.addProperty("type", serializedName(type));
+		json.addProperty("material", "rock");
+		json.addProperty("soundType", "stone");
+		json.addProperty("hardness", 1 + index % 3);
+
+		switch (type)
+		{
+			case DIRECTIONAL:
+				JsonObject textures = new JsonObject();
+				textures.addProperty("front", texture(blockName + "_front", index));
+				textures.addProperty("sides", texture(blockName + "_sides", index));
+				json.add("textures", textures);
+				break;
+			case COLORED:
+				for (String color : COLORS)
+					texture(blockName + "_" + color, index);
+				break;
+			case CONNECTED:
+				json.addProperty("opaque", false);
+				texture(blockName, index);
+				texture(blockName + "2", index);
+				break;
+			case WALL:
+				JsonObject wall = new JsonObject();
+				wall.addProperty("inside", texture(blockName + "_inside", index));
+				wall.addProperty("outside", texture(blockName + "_outside", index));
+				json.add("textures", wall);
+				break;
+			case MEGATEXTURE:
+				json.addProperty("numBlocks", 2);
+				files.put(blockName + ".png", png(64, 64));
+				break;
+			default:
+				texture(blockName, index);
+				break;
+		}
+
+		JsonArray recipes = new JsonArray();
+		recipes.add(recipe(index));
+		json.add("recipes", recipes);
+		return json;
+	}
+
+	private String texture(String path, int index) throws IOException
+	{
+		boolean animated = animatedPercent > 0 && index % 100 < animatedPercent;
+		List<byte[]> images = animated ? animatedTextures : textures;
+		files.put(path + ".png", images.get(index % images.size()));
+		if (animated)
+			files.put(path + ".png.mcmeta", "{\"animation\":{\"frametime\":4}}".getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	private JsonObject recipe(int index)
+	{
+		//RecipeIndex folds each grid with its mirror image, so the left column is pinned to the first ingredient, which the right column
+		//never uses : no grid is symmetric nor the mirror of another, and each block index up to 8^3 * 7^3 maps to a distinct grid
+		int count = INGREDIENTS.length;
+		int middle = index % (count * count * count);
+		int right = index / (count * count * count);
+		JsonArray items = new JsonArray();
+		for (int y = 0; y < 3; y++)
+		{
+			JsonArray row = new JsonArray();
+			row.add(new JsonPrimitive(INGREDIENTS[0]));
+			row.add(new JsonPrimitive(INGREDIENTS[middle % count]));
+			row.add(new JsonPrimitive(INGREDIENTS[1 + right % (count - 1)]));
+			middle /= count;
+			right /= count - 1;
+			items.add(row);
+		}
+
+		JsonObject recipe = new JsonObject();
+		recipe.add("items", items);
+		recipe.addProperty("shapeless", false);
+		return recipe;
+	}
+
+	private byte[] png(int width, int height) throws IOException
+	{
+		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				img.setRGB(x, y, 0xFF000000 | random.nextInt(0xFFFFFF));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(img, "png", out);
+		return out.toByteArray();
+	}
+
+	private static String serializedName(BlockType type)
+	{
+		try
+		{
+			return BlockType.class.getField(type.name()).getAnnotation(SerializedName.class).value();
+		}
+		catch (NoSuchFieldException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Writes the generated pack as a folder in <i>dir</i>.
+	 *
+	 * @param dir the dir
+	 * @return the pack folder
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public File writeFolder(File dir) throws IOException
+	{
+		File packDir = new File(dir, name);
+		for (Map.Entry<String, byte[]> entry : files.entrySet())
+			FileUtils.writeByteArrayToFile(new File(packDir, entry.getKey()), entry.getValue());
+		return packDir;
+	}
+
+	/**
+	 * Writes the generated pack as a zip file in <i>dir</i>.
+	 *
+	 * @param dir the dir
+	 * @return the zip file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public File writeZip(File dir) throws IOException
+	{
+		dir.mkdirs();
+		File zip = new File(dir, name + ".zip");
+		try (OutputStream os = new FileOutputStream(zip); ZipOutputStream zos = new ZipOutputStream(os))
+		{
+			for (Map.Entry<String, byte[]> entry : files.entrySet())
+			{
+				zos.putNextEntry(new ZipEntry(entry.getKey()));
+				zos.write(entry.getValue());
+				zos.closeEntry();
+			}
+		}
+		return zip;
+	}
+
+	/**
+	 * Writes the pack with the specified {@link Layout}.<br>
+	 * With {@link Layout#BOTH}, the zip is written in a sibling <code>&lt;dir&gt;_zip</code> directory, so that each layout can be loaded
+	 * on its own.
+	 *
+	 * @param dir the dir
+	 * @param layout the layout
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void write(File dir, Layout layout) throws IOException
+	{
+		if (layout != Layout.ZIP)
+			writeFolder(dir);
+		if (layout != Layout.FOLDER)
+			writeZip(new File(dir.getPath() + "_zip"));
+	}
+
+	/**
+	 * Parses a mix in the form <code>type=weight,type=weight</code>. An empty mix uses every {@link BlockType} with the same weight.
+	 *
+	 * @param str the str
+	 * @return the mix
+	 */
+	public static Map<BlockType, Integer> parseMix(String str)
+	{
+		Map<BlockType, Integer> mix = new EnumMap<>(BlockType.class);
+		if (str == null || str.isEmpty())
+		{
+			for (BlockType type : BlockType.values())
+				mix.put(type, 1);
+			return mix;
+		}
+
+		for (String part : str.split(","))
+		{
+			String[] kv = part.split("=");
+			mix.put(BlockType.valueOf(kv[0].trim().toUpperCase()), kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1);
+		}
+		return mix;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.out.println("Usage : PackGenerator <outDir> <blocks> [folder|zip|both] [type=weight,...] [animatedPercent]");
+			return;
+		}
+
+		File dir = new File(args[0]);
+		int blocks = Integer.parseInt(args[1]);
+		Layout layout = args.length > 2 ? Layout.valueOf(args[2].toUpperCase()) : Layout.FOLDER;
+		Map<BlockType, Integer> mix = parseMix(args.length > 3 ? args[3] : null);
+		int animated = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+		new PackGenerator("gen" + blocks, blocks, mix, animated).generate().write(dir, layout);
+		System.out.println("Generated pack gen" + blocks + " in " + dir.getAbsolutePath());
+	}
+}
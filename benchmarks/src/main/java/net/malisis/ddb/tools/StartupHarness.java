@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+
+import net.malisis.ddb.BlockIndex;
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDB;
+import net.malisis.ddb.PackRecipes;
+import net.malisis.ddb.bench.Headless;
+import net.malisis.ddb.tools.PackGenerator.Layout;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Measures how DDB startup scales with the number of blocks.<br>
+ * For each size, a pack is generated with {@link PackGenerator}, then loaded in a fresh JVM running {@link DDB#readPackFolder()}, the
+ * block registration, the {@link BlockIndex} and the recipe building. Time, peak heap and open files are written as CSV, one line per
+ * size.<br>
+ * Usage : <code>StartupHarness &lt;size,size,...&gt; [folder|zip] [server|client] [out.csv]</code>
+ *
+ * @author Ordinastie
+ *
+ */
+public class StartupHarness
+{
+	private static final String HEADER = "blocks,layout,side,read_ms,register_ms,index_ms,recipes_ms,peak_heap_mb,open_files";
+	private static final String RESULT = "RESULT,";
+
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length > 0 && args[0].equals("--run"))
+		{
+			System.out.println(RESULT + run(args[1], Side.valueOf(args[2].toUpperCase())));
+			System.exit(0);
+		}
+
+		if (args.length < 1)
+		{
+			System.out.println("Usage : StartupHarness <size,size,...> [folder|zip] [server|client] [out.csv]");
+			return;
+		}
+
+		int[] sizes = Arrays.stream(args[0].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+		Layout layout = args.length > 1 ? Layout.valueOf(args[1].toUpperCase()) : Layout.FOLDER;
+		if (layout == Layout.BOTH)
+			throw new IllegalArgumentException("Measure the folder and zip layouts separately");
+		String side = args.length > 2 ? args[2] : "server";
+		File csv = new File(args.length > 3 ? args[3] : "startup_scaling.csv");
+
+		List<String> lines = new ArrayList<>();
+		lines.add(HEADER);
+		System.out.println(HEADER);
+		for (int size : sizes)
+		{
+			String packDir = "packs_" + size + "_" + layout.name().toLowerCase();
+			File dir = new File(packDir);
+			FileUtils.deleteDirectory(dir);
+			PackGenerator generator = new PackGenerator("gen" + size, size, PackGenerator.parseMix(null), 5).generate();
+			if (layout == Layout.ZIP)
+				generator.writeZip(dir);
+			else
+				generator.writeFolder(dir);
+
+			String line = fork(packDir, side);
+			lines.add(line);
+			System.out.println(line);
+		}
+
+		try (PrintWriter writer = new PrintWriter(csv, "UTF-8"))
+		{
+			lines.forEach(writer::println);
+		}
+		System.out.println("Results written to " + csv.getAbsolutePath());
+	}
+
+	/**
+	 * Runs the measurement for <i>packDir</i> in a fresh JVM, so that the heap and file counts of each size are independent.
+	 *
+	 * @param packDir the pack dir
+	 * @param side the side
+	 * @return the CSV line
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException the interrupted exception
+	 */
+	private static String fork(String packDir, String side) throws IOException, InterruptedException
+	{
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		List<String> cmd = new ArrayList<>();
+		cmd.add(java);
+		cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+				.filter(arg -> arg.startsWith("-Xm"))
+				.collect(Collectors.toList()));
+		cmd.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), StartupHarness.class.getName(), "--run", packDir, side));
+
+		Process process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+		String result = null;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+				if (line.startsWith(RESULT))
+					result = line.substring(RESULT.length());
+		}
+		if (process.waitFor() != 0 || result == null)
+			throw new IllegalStateException("Measurement failed for " + packDir);
+		return result;
+	}
+
+	/**
+	 * Loads the packs in <i>packDir</i> and measures each step.
+	 *
+	 * @param packDir the pack dir, relative to the working directory
+	 * @param side the side
+	 * @return the CSV line
+	 */
+	private static String run(String packDir, Side side)
+	{
+		Headless.init(side);
+		DDB.PACKDIR = packDir;
+		List<MemoryPoolMXBean> heapPools = ManagementFactory	.getMemoryPoolMXBeans()
+																.stream()
+																.filter(pool -> pool.getType() == MemoryType.HEAP)
+																.collect(Collectors.toList());
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		long start = System.nanoTime();
+		DDB.readPackFolder();
+		long read = System.nanoTime();
+
+		//a failure to register headless aborts the measurement rather than skewing the following steps
+		for (BlockPack pack : DDB.getListPacks())
+			pack.registerBlocks();
+		long register = System.nanoTime();
+		long beforeIndex = System.nanoTime();
+		BlockIndex index = BlockIndex.publish(DDB.getListPacks());
+		long indexed = System.nanoTime();
+		DDB.getListPacks().parallelStream().map(PackRecipes::build).collect(Collectors.toList());
+		long recipes = System.nanoTime();
+
+		long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+		return String.join(",",
+				String.valueOf(index.size()),
+				DDB.getListPacks().stream().map(p -> p.getType().name()).distinct().collect(Collectors.joining("+")),
+				side.name(),
+				ms(read - start),
+				ms(register - read),
+				ms(indexed - beforeIndex),
+				ms(recipes - indexed),
+				String.valueOf(peak / (1024 * 1024)),
+				String.valueOf(openFiles()));
+	}
+
+	private static String ms(long nanos)
+	{
+		return String.valueOf(nanos / 1_000_000);
+	}
+
+	private static long openFiles()
+	{
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (os instanceof com.sun.management.UnixOperatingSystemMXBean)
+			return ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+		return -1;
+	}
+}
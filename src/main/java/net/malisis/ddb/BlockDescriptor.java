@@ -24,8 +24,13 @@
 
 package net.malisis.ddb;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import net.malisis.core.block.component.SlabComponent;
 import net.malisis.ddb.block.DDBBlock;
@@ -34,7 +39,6 @@ import net.minecraft.block.material.Material;
 import net.minecraft.util.EnumFacing;
 
 import com.google.common.collect.Lists;
-import com.google.gson.internal.LinkedTreeMap;
 
 /**
  * @author Ordinastie
@@ -96,10 +100,11 @@ public class BlockDescriptor
 	}
 
 	public BlockType type = BlockType.STANDARD;
+	public List<BlockType> family;
 	public String name;
 	public String textureName = name;
-	public LinkedTreeMap<String, String> textures;
-	public LinkedTreeMap<String, String> megatextures;
+	public Map<String, String> textures;
+	public Map<String, String> megatextures;
 	public String material;
 	public float hardness = 2.0F;
 	public String soundType;
@@ -111,15 +116,171 @@ public class BlockDescriptor
 	public List<DDBRecipe> recipes = Lists.newArrayList();
 	public DDBSmeltingRecipe furnaceRecipe;
 
+	private transient CompactDescriptor compact;
+	/** Descriptor this one was expanded from, if it belongs to a family. */
+	private transient BlockDescriptor familyDescriptor;
+
 	public void createBlock(BlockPack pack)
 	{
 		DDBBlock block = new DDBBlock(pack, this);
 		if (type == BlockType.SLAB)
-			new SlabComponent(block, new DDBBlock(pack, this));
+		{
+			DDBBlock doubleBlock = new DDBBlock(pack, this);
+			doubleBlock.releaseDescriptor();
+			new SlabComponent(block, doubleBlock);
+		}
 
 		pack.addBlock(block);
 	}
 
+	/**
+	 * Gets the {@link CompactDescriptor} for this {@link BlockDescriptor}.<br>
+	 * The same instance is shared by all the blocks created from this descriptor.
+	 *
+	 * @return the compact descriptor
+	 */
+	public CompactDescriptor compact()
+	{
+		if (compact == null)
+			compact = new CompactDescriptor(this);
+		return compact;
+	}
+
+	/**
+	 * Turns this {@link BlockDescriptor} into a template that other descriptors can extend.<br>
+	 * The texture maps are made unmodifiable so they can be shared by all the descriptors deriving from it, and the recipes are dropped as
+	 * they are never inherited.
+	 *
+	 * @return this descriptor
+	 */
+	public BlockDescriptor asTemplate()
+	{
+		if (textures != null)
+			textures = Collections.unmodifiableMap(textures);
+		if (megatextures != null)
+			megatextures = Collections.unmodifiableMap(megatextures);
+		recipes = Lists.newArrayList();
+		furnaceRecipe = null;
+		return this;
+	}
+
+	/**
+	 * Creates a new {@link BlockDescriptor} inheriting the fields of this template.<br>
+	 * The values are not copied : the new descriptor points to the same strings and texture maps. The name, recipes and furnace recipe are
+	 * not inherited.
+	 *
+	 * @return the block descriptor
+	 */
+	public BlockDescriptor derive()
+	{
+		BlockDescriptor desc = new BlockDescriptor();
+		desc.type = type;
+		desc.family = family;
+		desc.textureName = textureName;
+		desc.textures = textures;
+		desc.megatextures = megatextures;
+		desc.material = material;
+		desc.hardness = hardness;
+		desc.soundType = soundType;
+		desc.useColorMultiplier = useColorMultiplier;
+		desc.opaque = opaque;
+		desc.translucent = translucent;
+		desc.lightValue = lightValue;
+		desc.numBlocks = numBlocks;
+		return desc;
+	}
+
+	/**
+	 * Inherits from the <i>template</i> the fields this {@link BlockDescriptor} doesn't <i>declare</i> itself.<br>
+	 * As with {@link #derive()}, the values are shared with the template, and the name, recipes and furnace recipe are never inherited.
+	 *
+	 * @param template the template
+	 * @param declared the names of the fields declared by this descriptor
+	 * @return this descriptor
+	 */
+	public BlockDescriptor inherit(BlockDescriptor template, Set<String> declared)
+	{
+		if (!declared.contains("type"))
+			type = template.type;
+		if (!declared.contains("family"))
+			family = template.family;
+		if (!declared.contains("textureName"))
+			textureName = template.textureName;
+		if (!declared.contains("textures"))
+			textures = template.textures;
+		if (!declared.contains("megatextures"))
+			megatextures = template.megatextures;
+		if (!declared.contains("material"))
+			material = template.material;
+		if (!declared.contains("hardness"))
+			hardness = template.hardness;
+		if (!declared.contains("soundType"))
+			soundType = template.soundType;
+		if (!declared.contains("useColorMultiplier"))
+			useColorMultiplier = template.useColorMultiplier;
+		if (!declared.contains("opaque"))
+			opaque = template.opaque;
+		if (!declared.contains("translucent"))
+			translucent = template.translucent;
+		if (!declared.contains("lightValue"))
+			lightValue = template.lightValue;
+		if (!declared.contains("numBlocks"))
+			numBlocks = template.numBlocks;
+		return this;
+	}
+
+	/**
+	 * Expands this {@link BlockDescriptor} into one descriptor per {@link BlockType} listed in its {@link #family}.<br>
+	 * The {@link BlockType#STANDARD} member keeps the name of this descriptor, the others are named <code>name_type</code>. All the members
+	 * derive from this descriptor, share its texture data and their icons. The recipes go to the first member only.
+	 *
+	 * @return the descriptors to create, only this one if it has no family
+	 */
+	public List<BlockDescriptor> expandFamily()
+	{
+		if (family == null || family.isEmpty())
+			return Collections.singletonList(this);
+
+		List<BlockDescriptor> members = new ArrayList<>(family.size());
+		family.stream().distinct().forEach(t -> {
+			BlockDescriptor member = derive();
+			member.type = t;
+			member.family = null;
+			member.name = memberName(name, t);
+			member.textureName = getTexture();
+			member.familyDescriptor = this;
+			if (members.isEmpty())
+			{
+				member.recipes = recipes;
+				member.furnaceRecipe = furnaceRecipe;
+			}
+			members.add(member);
+		});
+		return members;
+	}
+
+	/**
+	 * Gets the name of the <i>type</i> member of the family named <i>name</i>.
+	 *
+	 * @param name the family name
+	 * @param type the type of the member
+	 * @return the member name
+	 */
+	public static String memberName(String name, BlockType type)
+	{
+		return type == BlockType.STANDARD ? name : name + "_" + type.name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Gets the {@link BlockDescriptor} this descriptor was expanded from.
+	 *
+	 * @return the family descriptor, <code>null</code> if this descriptor is not part of a family
+	 */
+	public BlockDescriptor getFamily()
+	{
+		return familyDescriptor;
+	}
+
 	public Material getMaterial()
 	{
 		Material mat = materials.get(material);
@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import net.malisis.ddb.block.DDBBlock;
+
+/**
+ * Immutable index of all the {@link DDBBlock DDBBlocks} of all the {@link BlockPack BlockPacks}.<br>
+ * The index is built once the blocks are registered and published through {@link #get()}. It is never modified afterwards, so it can be
+ * read from any thread without locking.<br>
+ * The bulk queries return immutable lists shared by all the callers.
+ *
+ * @author Ordinastie
+ *
+ */
+public final class BlockIndex
+{
+	private static volatile BlockIndex instance;
+
+	private final ImmutableList<DDBBlock> blocks;
+	private final ImmutableMap<String, DDBBlock> byName;
+	private final ImmutableMap<DDBBlock, Integer> ids;
+	private final ImmutableMap<String, ImmutableList<DDBBlock>> byPack;
+	private final List<ImmutableList<DDBBlock>> byType;
+
+	private BlockIndex(Collection<BlockPack> packs)
+	{
+		ImmutableList.Builder<DDBBlock> all = ImmutableList.builder();
+		ImmutableMap.Builder<String, ImmutableList<DDBBlock>> packBuilder = ImmutableMap.builder();
+		for (BlockPack pack : packs)
+		{
+			ImmutableList<DDBBlock> packBlocks = ImmutableList.copyOf(pack.getBlocks());
+			packBuilder.put(pack.getName(), packBlocks);
+			all.addAll(packBlocks);
+		}
+
+		blocks = all.build();
+		byPack = packBuilder.build();
+
+		Map<String, DDBBlock> names = new LinkedHashMap<>();
+		ImmutableMap.Builder<DDBBlock, Integer> idBuilder = ImmutableMap.builder();
+		List<ImmutableList.Builder<DDBBlock>> typeBuilders = new ArrayList<>();
+		for (int i = 0; i < BlockType.values().length; i++)
+			typeBuilders.add(ImmutableList.builder());
+		for (int i = 0; i < blocks.size(); i++)
+		{
+			DDBBlock block = blocks.get(i);
+			if (names.putIfAbsent(block.getName(), block) != null)
+				DDB.log.error("Duplicate DDB block name {}, only the first one is indexed.", block.getName());
+			idBuilder.put(block, i);
+			typeBuilders.get(block.getBlockType().ordinal()).add(block);
+		}
+		byName = ImmutableMap.copyOf(names);
+		ids = idBuilder.build();
+		byType = typeBuilders.stream().map(ImmutableList.Builder::build).collect(Collectors.toList());
+	}
+
+	/**
+	 * Gets the number of {@link DDBBlock DDBBlocks} indexed.
+	 *
+	 * @return the size
+	 */
+	public int size()
+	{
+		return blocks.size();
+	}
+
+	/**
+	 * Gets the {@link DDBBlock} registered with the specified <i>name</i>, in the form <code>pack_block</code>.
+	 *
+	 * @param name the name
+	 * @return the block, <code>null</code> if none
+	 */
+	public DDBBlock getBlock(String name)
+	{
+		return byName.get(name);
+	}
+
+	/**
+	 * Gets the {@link DDBBlock} with the specified index <i>id</i>.
+	 *
+	 * @param id the id
+	 * @return the block, <code>null</code> if the id is out of bounds
+	 */
+	public DDBBlock getBlock(int id)
+	{
+		return id >= 0 && id < blocks.size() ? blocks.get(id) : null;
+	}
+
+	/**
+	 * Gets the index id of the <i>block</i>.<br>
+	 * Ids are contiguous, starting at 0, in the order the packs and their blocks were loaded.
+	 *
+	 * @param block the block
+	 * @return the id, -1 if the block is not indexed
+	 */
+	public int getId(DDBBlock block)
+	{
+		Integer id = ids.get(block);
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * Gets all the {@link DDBBlock DDBBlocks} indexed.
+	 *
+	 * @return the blocks
+	 */
+	public ImmutableList<DDBBlock> getBlocks()
+	{
+		return blocks;
+	}
+
+	/**
+	 * Gets all the {@link DDBBlock DDBBlocks} of the specified {@link BlockType}.
+	 *
+	 * @param type the type
+	 * @return the blocks
+	 */
+	public ImmutableList<DDBBlock> getBlocks(BlockType type)
+	{
+		return byType.get(type.ordinal());
+	}
+
+	/**
+	 * Gets all the {@link DDBBlock DDBBlocks} of the {@link BlockPack} with the specified <i>name</i>.
+	 *
+	 * @param packName the pack name
+	 * @return the blocks, empty if no pack matches
+	 */
+	public ImmutableList<DDBBlock> getBlocks(String packName)
+	{
+		return byPack.getOrDefault(packName, ImmutableList.of());
+	}
+
+	/**
+	 * Gets the names of the indexed {@link BlockPack BlockPacks}.
+	 *
+	 * @return the pack names
+	 */
+	public Collection<String> getPackNames()
+	{
+		return byPack.keySet();
+	}
+
+	/**
+	 * Builds the index for the <i>packs</i> and publishes it.
+	 *
+	 * @param packs the packs
+	 * @return the block index
+	 */
+	public static BlockIndex publish(Collection<BlockPack> packs)
+	{
+		BlockIndex index = new BlockIndex(packs);
+		instance = index;
+		return index;
+	}
+
+	/**
+	 * Gets the published {@link BlockIndex}.
+	 *
+	 * @return the index, <code>null</code> if the blocks are not registered yet
+	 */
+	public static BlockIndex get()
+	{
+		return instance;
+	}
+}
@@ -27,21 +27,36 @@ package net.malisis.ddb;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 import com.google.common.collect.Maps;
 
-import net.malisis.core.MalisisCore;
 import net.malisis.core.asm.AsmUtils;
 import net.malisis.core.block.IComponent;
 import net.malisis.core.block.component.SlabComponent;
-import net.malisis.core.util.Silenced;
 import net.malisis.ddb.block.DDBBlock;
+import net.malisis.ddb.texture.SpriteSheet;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IReloadableResourceManager;
 import net.minecraft.client.resources.IResourceManager;
@@ -75,6 +90,9 @@ public class BlockPack
 
 	}
 
+	/** Whether the file system ignores case, as on Windows, in which case the FOLDER index does too. */
+	private static final boolean caseInsensitiveFiles = new File("A").equals(new File("a"));
+
 	public enum Type
 	{
 		FOLDER,
@@ -85,21 +103,28 @@ public class BlockPack
 	private String name;
 	private ZipFile zipFile;
 
-	private HashMap<String, DDBBlock> blocks = new HashMap<>();
+	private List<BlockDescriptor> descriptors = Collections.emptyList();
+	private Map<String, DDBBlock> blocks = new LinkedHashMap<>();
+	private Map<String, LangEntry> langCache = new HashMap<>();
+	private List<DDBIcon> icons = new ArrayList<>();
+	private Map<String, Optional<SpriteSheet>> spriteSheets = new ConcurrentHashMap<>();
+	private DDBTab tab;
+	/** Files of a FOLDER pack, by relative path. */
+	private volatile Map<String, FolderEntry> folderIndex;
+	private PackManifest manifest;
 
 	public BlockPack(Type type, String name, ZipFile zipFile)
 	{
 		this.type = type;
 		this.name = name;
 		this.zipFile = zipFile;
-
-		if (MalisisCore.isClient())
-			registerReloadListener();
-
 	}
 
+	/**
+	 * Registers the {@link Reloader} loading the localizations of all the {@link BlockPack BlockPacks}.
+	 */
 	@SideOnly(Side.CLIENT)
-	private void registerReloadListener()
+	public static void registerReloadListener()
 	{
 		((IReloadableResourceManager) Minecraft.getMinecraft().getResourceManager()).registerReloadListener(new Reloader());
 	}
@@ -145,10 +170,9 @@ public class BlockPack
 	{
 		if (type == Type.FOLDER)
 		{
-			File file = new File(getDirectory() + path);
-			if (!file.isFile())
+			if (getFolderEntry(path) == null)
 				return null;
-			return FileUtils.openInputStream(file);
+			return FileUtils.openInputStream(new File(getDirectory() + path));
 		}
 		else if (type == Type.ZIP && zipFile != null)
 		{
@@ -161,6 +185,240 @@ public class BlockPack
 		throw new IOException("Undetermined pack type : " + type);
 	}
 
+	/**
+	 * Reads the whole file at <i>path</i> in this {@link BlockPack} into memory, in a single bulk read.
+	 *
+	 * @param path the path
+	 * @return the bytes, or <code>null</code> if the file does not exist
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public byte[] readBytes(String path) throws IOException
+	{
+		if (type == Type.FOLDER)
+		{
+			if (getFolderEntry(path) == null)
+				return null;
+			return Files.readAllBytes(Paths.get(getDirectory(), path));
+		}
+		else if (type == Type.ZIP && zipFile != null)
+		{
+			ZipEntry entry = zipFile.getEntry(path);
+			if (entry == null)
+				return null;
+			try (InputStream is = zipFile.getInputStream(entry))
+			{
+				return entry.getSize() >= 0 ? IOUtils.toByteArray(is, entry.getSize()) : IOUtils.toByteArray(is);
+			}
+		}
+
+		throw new IOException("Undetermined pack type : " + type);
+	}
+
+	/**
+	 * Closes the archive of this {@link BlockPack}, if any.<br>
+	 * No file can be read from a ZIP pack afterwards.
+	 */
+	public void close()
+	{
+		if (zipFile == null)
+			return;
+
+		try
+		{
+			zipFile.close();
+		}
+		catch (IOException e)
+		{
+			DDB.log.error("Could not close pack {} : {}", name, e.getMessage());
+		}
+		zipFile = null;
+	}
+
+	/**
+	 * Gets a stamp identifying the content of the file at <i>path</i> in this {@link BlockPack}.<br>
+	 * The stamp is derived from the CRC and size for ZIP packs, and from the modification time and size for FOLDER packs. It changes
+	 * whenever the content changes, without having to read it. For FOLDER packs, changes are only seen once the index is refreshed.
+	 *
+	 * @param path the path
+	 * @return the stamp, or -1 if the file does not exist
+	 */
+	public long getStamp(String path)
+	{
+		if (type == Type.FOLDER)
+		{
+			FolderEntry entry = getFolderEntry(path);
+			if (entry == null)
+				return -1;
+			return entry.lastModified * 31 + entry.size;
+		}
+		else if (type == Type.ZIP && zipFile != null)
+		{
+			ZipEntry entry = zipFile.getEntry(path);
+			if (entry == null)
+				return -1;
+			return (entry.getCrc() != -1 ? entry.getCrc() : entry.getTime()) * 31 + entry.getSize();
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Gets the modification time of the file at <i>path</i> in this {@link BlockPack}.<br>
+	 * For ZIP packs, this is the time stored in the archive entry.
+	 *
+	 * @param path the path
+	 * @return the modification time in milliseconds, or -1 if the file does not exist
+	 */
+	public long getLastModified(String path)
+	{
+		if (type == Type.FOLDER)
+		{
+			FolderEntry entry = getFolderEntry(path);
+			return entry != null ? entry.lastModified : -1;
+		}
+		else if (type == Type.ZIP && zipFile != null)
+		{
+			ZipEntry entry = zipFile.getEntry(path);
+			return entry != null ? entry.getTime() : -1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Lists the files directly inside the <i>dir</i> directory of this {@link BlockPack} whose name ends with <i>extension</i>.
+	 *
+	 * @param dir the directory, relative to the pack root
+	 * @param extension the extension
+	 * @return the paths, sorted
+	 */
+	public List<String> listFiles(String dir, String extension)
+	{
+		String prefix = dir + "/";
+		List<String> files = new ArrayList<>();
+		if (type == Type.FOLDER)
+		{
+			for (FolderEntry entry : getFolderEntries())
+				if (isInDirectory(entry.path, prefix, extension))
+					files.add(entry.path);
+		}
+		else if (type == Type.ZIP && zipFile != null)
+		{
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements())
+			{
+				ZipEntry entry = entries.nextElement();
+				if (!entry.isDirectory() && isInDirectory(entry.getName(), prefix, extension))
+					files.add(entry.getName());
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	private static boolean isInDirectory(String path, String prefix, String extension)
+	{
+		return path.startsWith(prefix) && path.endsWith(extension) && path.indexOf('/', prefix.length()) == -1;
+	}
+
+	/**
+	 * Walks the directory of this FOLDER {@link BlockPack} to index its files.<br>
+	 * All the lookups of files in the pack go through the index afterwards, so they don't touch the file system, and a missing file is
+	 * simply absent from it. Called on each texture reload so files added, changed or removed in between are seen.
+	 */
+	public void refreshIndex()
+	{
+		if (type != Type.FOLDER)
+			return;
+
+		Path root = Paths.get(getDirectory());
+		Map<String, FolderEntry> index = new HashMap<>();
+		try
+		{
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+				{
+					if (attrs.isRegularFile())
+					{
+						String path = root.relativize(file).toString().replace('\\', '/');
+						index.put(indexKey(path), new FolderEntry(path, attrs.lastModifiedTime().toMillis(), attrs.size()));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e)
+				{
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+		catch (IOException e)
+		{
+			DDB.log.error("Could not index pack {} : {}", name, e.getMessage());
+		}
+		folderIndex = index;
+	}
+
+	private FolderEntry getFolderEntry(String path)
+	{
+		Map<String, FolderEntry> index = folderIndex;
+		if (index == null)
+		{
+			refreshIndex();
+			index = folderIndex;
+		}
+		return index.get(indexKey(path));
+	}
+
+	/**
+	 * Gets the indexed files of this FOLDER {@link BlockPack}.
+	 *
+	 * @return the folder entries
+	 */
+	Collection<FolderEntry> getFolderEntries()
+	{
+		Map<String, FolderEntry> index = folderIndex;
+		if (index == null)
+		{
+			refreshIndex();
+			index = folderIndex;
+		}
+		return index.values();
+	}
+
+	/**
+	 * Gets the archive of this ZIP {@link BlockPack}.
+	 *
+	 * @return the zip file, <code>null</code> once closed
+	 */
+	ZipFile getZipFile()
+	{
+		return zipFile;
+	}
+
+	/**
+	 * Gets the {@link PackManifest} computed when this {@link BlockPack} was read.
+	 *
+	 * @return the manifest
+	 */
+	public PackManifest getManifest()
+	{
+		return manifest;
+	}
+
+	public void setManifest(PackManifest manifest)
+	{
+		this.manifest = manifest;
+	}
+
+	private static String indexKey(String path)
+	{
+		path = path.replace('\\', '/');
+		return caseInsensitiveFiles ? path.toLowerCase(Locale.ROOT) : path;
+	}
+
 	/**
 	 * Gets the {@link DDBBlock} with the specified <i>name</i>.
 	 *
@@ -172,6 +430,50 @@ public class BlockPack
 		return blocks.get(name);
 	}
 
+	/**
+	 * Gets the {@link DDBBlock DDBBlocks} of this {@link BlockPack}, in the order they were declared.
+	 *
+	 * @return the blocks
+	 */
+	public Collection<DDBBlock> getBlocks()
+	{
+		return blocks.values();
+	}
+
+	/**
+	 * Sets the {@link BlockDescriptor BlockDescriptors} read for this {@link BlockPack}, to be created with {@link #createBlocks()}.
+	 *
+	 * @param descriptors the descriptors
+	 */
+	public void setDescriptors(List<BlockDescriptor> descriptors)
+	{
+		this.descriptors = descriptors;
+	}
+
+	/**
+	 * Creates the {@link DDBBlock DDBBlocks} for the {@link BlockDescriptor BlockDescriptors} read for this {@link BlockPack}.<br>
+	 * Must be called from the main thread.
+	 */
+	public void createBlocks()
+	{
+		for (BlockDescriptor desc : descriptors)
+			desc.createBlock(this);
+		descriptors = Collections.emptyList();
+	}
+
+	/**
+	 * Gets the {@link DDBTab} holding the blocks of this {@link BlockPack}, created on first use.<br>
+	 * Must be called from the main thread.
+	 *
+	 * @return the tab
+	 */
+	public DDBTab getTab()
+	{
+		if (tab == null)
+			tab = new DDBTab(this);
+		return tab;
+	}
+
 	/**
 	 * Adds the <i>block</i> in this {@link BlockPack}.
 	 *
@@ -182,19 +484,37 @@ public class BlockPack
 		blocks.put(block.getName(), block);
 	}
 
-	private void readLangFiles()
+	/**
+	 * Gets the localization map for the <i>lang</i> of this {@link BlockPack}.<br>
+	 * The parsed map is cached and the file is only read again when its {@link #getStamp(String) stamp} changes.
+	 *
+	 * @param lang the lang
+	 * @return the map, empty if the pack has no file for that language
+	 */
+	public Map<String, String> getLang(String lang)
 	{
-		//always load the english localization
-		loadLang("en_US");
-		Language current = Minecraft.getMinecraft().getLanguageManager().getCurrentLanguage();
-		if (current != null && !"en_US".equals(current.getLanguageCode()))
-			loadLang(current.getLanguageCode());
-	}
+		String path = "lang/" + lang + ".lang";
+		long stamp = getStamp(path);
+		LangEntry entry = langCache.get(lang);
+		if (entry != null && entry.stamp == stamp)
+			return entry.map;
 
-	private void loadLang(String lang)
-	{
-		Map<String, String> map = LanguageMap.parseLangFile(Silenced.get(() -> getInputStream("lang/" + lang + ".lang")));
-		languageList.putAll(map);
+		Map<String, String> map = Collections.emptyMap();
+		if (stamp != -1)
+		{
+			try (InputStream is = getInputStream(path))
+			{
+				if (is != null)
+					map = LanguageMap.parseLangFile(is);
+			}
+			catch (IOException e)
+			{
+				DDB.log.error("Could not read {} in pack {} : {}", path, name, e.getMessage());
+			}
+		}
+
+		langCache.put(lang, new LangEntry(stamp, map));
+		return map;
 	}
 
 	/**
@@ -209,24 +529,111 @@ public class BlockPack
 				sc.register();
 			else
 				block.register();
+			block.buildBoundingBoxes();
 		}
 	}
 
-	public void registerRecipes()
+	/**
+	 * Adds a {@link DDBIcon} created for this {@link BlockPack}.
+	 *
+	 * @param icon the icon
+	 */
+	public void addIcon(DDBIcon icon)
 	{
-		for (DDBBlock block : blocks.values())
+		icons.add(icon);
+	}
+
+	/**
+	 * Gets the {@link DDBIcon DDBIcons} created for this {@link BlockPack}.
+	 *
+	 * @return the icons
+	 */
+	public List<DDBIcon> getIcons()
+	{
+		return icons;
+	}
+
+	/**
+	 * Gets the {@link SpriteSheet} with the specified <i>name</i> in this {@link BlockPack}.<br>
+	 * The sheet is decoded on first use, and kept until {@link #clearSpriteSheets()} is called once the textures are loaded.
+	 *
+	 * @param name the name
+	 * @return the sprite sheet, <code>null</code> if it could not be loaded
+	 */
+	@SideOnly(Side.CLIENT)
+	public SpriteSheet getSpriteSheet(String name)
+	{
+		return spriteSheets.computeIfAbsent(name, n -> Optional.ofNullable(SpriteSheet.load(this, n))).orElse(null);
+	}
+
+	/**
+	 * Releases the decoded {@link SpriteSheet SpriteSheets} of this {@link BlockPack}.
+	 */
+	public void clearSpriteSheets()
+	{
+		spriteSheets.clear();
+	}
+
+	/**
+	 * Estimates the number of bytes retained by the cached localizations of this {@link BlockPack}.
+	 *
+	 * @return the bytes
+	 */
+	public long getLangBytes()
+	{
+		long bytes = 0;
+		for (LangEntry entry : langCache.values())
+			for (Map.Entry<String, String> e : entry.map.entrySet())
+				bytes += 32 + 2 * (40 + e.getKey().length() + e.getValue().length());
+		return bytes;
+	}
+
+	static class FolderEntry
+	{
+		final String path;
+		final long lastModified;
+		final long size;
+
+		public FolderEntry(String path, long lastModified, long size)
+		{
+			this.path = path;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+	}
+
+	private static class LangEntry
+	{
+		private final long stamp;
+		private final Map<String, String> map;
+
+		public LangEntry(long stamp, Map<String, String> map)
 		{
-			block.registerRecipes();
+			this.stamp = stamp;
+			this.map = map;
 		}
 	}
 
 	@SideOnly(Side.CLIENT)
-	public class Reloader implements IResourceManagerReloadListener
+	public static class Reloader implements IResourceManagerReloadListener
 	{
 		@Override
 		public void onResourceManagerReload(IResourceManager resourceManager)
 		{
-			readLangFiles();
+			long start = System.nanoTime();
+			//always load the english localization, then override it with the current language
+			Map<String, String> lang = new HashMap<>();
+			for (BlockPack pack : DDB.getListPacks())
+				lang.putAll(pack.getLang("en_US"));
+
+			Language current = Minecraft.getMinecraft().getLanguageManager().getCurrentLanguage();
+			if (current != null && !"en_US".equals(current.getLanguageCode()))
+				for (BlockPack pack : DDB.getListPacks())
+					lang.putAll(pack.getLang(current.getLanguageCode()));
+
+			languageList.putAll(lang);
+			DDB.tab.invalidateSearch();
+			DDBMetrics.langReloaded(System.nanoTime() - start);
 		}
 	}
 }
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.Map;
+
+import net.minecraft.util.EnumFacing;
+
+/**
+ * Compact and immutable form of a {@link BlockDescriptor}, kept by the blocks once they are created.<br>
+ * Only holds what the block needs at runtime : texture names indexed by {@link TextureKey}, interned strings and a flags bitfield.
+ *
+ * @author Ordinastie
+ *
+ */
+public final class CompactDescriptor
+{
+	public static final int OPAQUE = 1;
+	public static final int TRANSLUCENT = 1 << 1;
+	public static final int COLOR_MULTIPLIER = 1 << 2;
+
+	public enum TextureKey
+	{
+		TOP("top"),
+		BOTTOM("bottom"),
+		SIDES("sides"),
+		FRONT("front"),
+		INSIDE("inside"),
+		OUTSIDE("outside");
+
+		private static final TextureKey[] VALUES = values();
+		private final String key;
+
+		private TextureKey(String key)
+		{
+			this.key = key;
+		}
+
+		public String getKey()
+		{
+			return key;
+		}
+
+		public static TextureKey fromKey(String key)
+		{
+			for (TextureKey tk : VALUES)
+				if (tk.key.equals(key))
+					return tk;
+			return null;
+		}
+	}
+
+	private final String name;
+	private final String iconName;
+	private final String textureName;
+	private final BlockType type;
+	private final int flags;
+	private final int lightValue;
+	private final int numBlocks;
+	private final String[] textures;
+
+	CompactDescriptor(BlockDescriptor descriptor)
+	{
+		CompactDescriptor family = descriptor.getFamily() != null ? descriptor.getFamily().compact() : null;
+		this.name = intern(descriptor.name);
+		this.iconName = family != null ? family.name : name;
+		this.textureName = intern(descriptor.getTexture());
+		this.type = descriptor.type;
+		this.lightValue = Math.max(0, Math.min(15, descriptor.lightValue));
+		this.numBlocks = descriptor.numBlocks;
+
+		int flags = 0;
+		if (descriptor.opaque)
+			flags |= OPAQUE;
+		if (descriptor.translucent)
+			flags |= TRANSLUCENT;
+		if (descriptor.useColorMultiplier)
+			flags |= COLOR_MULTIPLIER;
+		this.flags = flags;
+
+		this.textures = family != null ? family.textures : compactTextures(descriptor.textures);
+	}
+
+	private static String[] compactTextures(Map<String, String> textures)
+	{
+		if (textures == null || textures.isEmpty())
+			return null;
+
+		String[] array = new String[TextureKey.VALUES.length];
+		for (TextureKey key : TextureKey.VALUES)
+			array[key.ordinal()] = intern(textures.get(key.key));
+		return array;
+	}
+
+	private static String intern(String str)
+	{
+		return str != null ? str.intern() : null;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Gets the name the icons are registered with.<br>
+	 * Blocks expanded from the same family share it, and so share their icons.
+	 *
+	 * @return the icon name
+	 */
+	public String getIconName()
+	{
+		return iconName;
+	}
+
+	public BlockType getType()
+	{
+		return type;
+	}
+
+	public boolean is(int flag)
+	{
+		return (flags & flag) != 0;
+	}
+
+	public boolean isOpaque()
+	{
+		return is(OPAQUE);
+	}
+
+	public boolean isTranslucent()
+	{
+		return is(TRANSLUCENT);
+	}
+
+	public boolean useColorMultiplier()
+	{
+		return is(COLOR_MULTIPLIER);
+	}
+
+	public int getLightValue()
+	{
+		return lightValue;
+	}
+
+	public int getNumBlocks()
+	{
+		return numBlocks;
+	}
+
+	public String getTexture()
+	{
+		return textureName;
+	}
+
+	public String getTexture(TextureKey key)
+	{
+		return textures != null ? textures[key.ordinal()] : null;
+	}
+
+	public String getTexture(String key)
+	{
+		TextureKey tk = TextureKey.fromKey(key);
+		return tk != null ? getTexture(tk) : null;
+	}
+
+	public String getTexture(EnumFacing dir)
+	{
+		if (textures == null)
+			return null;
+
+		if (dir == EnumFacing.DOWN)
+			return getTexture(TextureKey.BOTTOM);
+		if (dir == EnumFacing.UP)
+			return getTexture(TextureKey.TOP);
+
+		String textureName = null;
+		if (dir == EnumFacing.SOUTH)
+			textureName = getTexture(TextureKey.FRONT);
+		return textureName != null ? textureName : getTexture(TextureKey.SIDES);
+	}
+}
@@ -25,8 +25,17 @@
 package net.malisis.ddb;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,12 +45,17 @@ import net.malisis.core.MalisisCore;
 import net.malisis.core.configuration.Settings;
 import net.malisis.ddb.block.DDBBlock;
 import net.malisis.ddb.json.BlockPackJsonReader;
-import net.minecraft.creativetab.CreativeTabs;
+import net.malisis.ddb.network.DDBNetwork;
+import net.minecraftforge.client.ClientCommandHandler;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.Mod.Instance;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * @author Ordinastie
@@ -51,14 +65,17 @@ import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 public class DDB implements IMalisisMod
 {
 	public static String PACKDIR = "ddbpacks";
-	public static HashMap<String, BlockPack> packs = new HashMap<>();
+	public static Map<String, BlockPack> packs = new LinkedHashMap<>();
 
 	public static final String modid = "ddb";
 	public static final String modname = "DIY Decorative Blocks";
 	public static final String version = "${version}";
 
 	public static Logger log = LogManager.getLogger(modid);
-	public static CreativeTabs tab = new DDBTab();
+	public static DDBTab tab = new DDBTab();
+	public static DDBSettings settings = DDBSettings.ALL;
+
+	private static CompletableFuture<List<BlockPack>> packLoading;
 
 	@Instance
 	public static DDB instance;
@@ -67,7 +84,10 @@ public class DDB implements IMalisisMod
 	{
 		instance = this;
 		MalisisCore.registerMod(this);
-		readPackFolder();
+		//read the packs in the background while the other mods load, joined in preInit
+		packLoading = readPackFolderAsync();
+		if (MalisisCore.isClient())
+			BlockPack.registerReloadListener();
 	}
 
 	@Override
@@ -91,37 +111,105 @@ public class DDB implements IMalisisMod
 	@Override
 	public Settings getSettings()
 	{
+		//the pack and block selection lives in DDBSettings, read before MalisisCore settings are available
 		return null;
 	}
 
 	@EventHandler
 	public void preInit(FMLPreInitializationEvent event)
 	{
+		DDBMetrics.register();
+		DDBNetwork.register();
+		if (MalisisCore.isClient())
+			registerClient();
+
+		loadPacks(packLoading.join());
+		packLoading = null;
 		for (BlockPack pack : getListPacks())
 			pack.registerBlocks();
+		BlockIndex.publish(getListPacks());
 	}
 
 	@EventHandler
 	public void init(FMLInitializationEvent event)
 	{
+		//build all the recipes in parallel, then register them in the packs order
+		List<PackRecipes> recipes = getListPacks().parallelStream().map(PackRecipes::build).collect(Collectors.toList());
+		RecipeIndex index = RecipeIndex.fromRegistry();
+		for (PackRecipes packRecipes : recipes)
+			packRecipes.register(index);
+
+		//recipes are registered, only the compact descriptors are needed from now on
 		for (BlockPack pack : getListPacks())
-			pack.registerRecipes();
+			pack.getBlocks().forEach(DDBBlock::releaseDescriptor);
+	}
+
+	@SideOnly(Side.CLIENT)
+	private void registerClient()
+	{
+		MinecraftForge.EVENT_BUS.register(new DDBClientEvents());
+		ClientCommandHandler.instance.registerCommand(new DDBCommand.Client());
+	}
+
+	@EventHandler
+	public void serverStarting(FMLServerStartingEvent event)
+	{
+		event.registerServerCommand(new DDBCommand());
 	}
 
 	/**
 	 * Reads the pack folder and creates the packs
 	 */
 	public static void readPackFolder()
+	{
+		loadPacks(readPackFolderAsync().join());
+	}
+
+	/**
+	 * Starts reading the pack folder in the background.<br>
+	 * The pack files are read and their descriptors parsed in parallel, but the blocks are not created.
+	 *
+	 * @return the future packs, in the order of their file names
+	 */
+	public static CompletableFuture<List<BlockPack>> readPackFolderAsync()
 	{
 		File packDir = new File("./" + PACKDIR);
 		if (!packDir.exists())
 			packDir.mkdir();
 
-		for (File file : packDir.listFiles())
+		File[] files = packDir.listFiles();
+		if (files == null)
+		{
+			DDB.log.error("Could not list the files of {}, no DDB pack will be loaded.", packDir);
+			return CompletableFuture.completedFuture(Collections.emptyList());
+		}
+		Arrays.sort(files);
+		boolean clientAssets = MalisisCore.isClient();
+		DDBSettings settings = DDBSettings.read();
+		DDB.settings = settings;
+
+		ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "DDB pack loader"));
+		CompletableFuture<List<BlockPack>> future = CompletableFuture.supplyAsync(() -> Arrays	.stream(files)
+																								.parallel()
+																								.map(file -> BlockPackJsonReader.readPack(file, clientAssets, settings))
+																								.filter(Objects::nonNull)
+																								.collect(Collectors.toList()),
+				executor);
+		executor.shutdown();
+		return future;
+	}
+
+	/**
+	 * Registers the <i>packs</i> and creates their blocks.
+	 *
+	 * @param packs the packs
+	 */
+	private static void loadPacks(List<BlockPack> packs)
+	{
+		for (BlockPack pack : packs)
 		{
-			BlockPack pack = BlockPackJsonReader.readPack(file);
-			if (pack != null)
-				register(pack);
+			if (register(pack))
+				pack.createBlocks();
 		}
 	}
 
@@ -139,13 +227,18 @@ public class DDB implements IMalisisMod
 	 * Registers the pack if not already present in registry
 	 *
 	 * @param pack
+	 * @return true if the pack was registered
 	 */
-	public static void register(BlockPack pack)
+	public static boolean register(BlockPack pack)
 	{
 		if (DDB.packs.get(pack.getName()) == null)
+		{
 			DDB.packs.put(pack.getName(), pack);
-		else
-			DDB.log.error("A DDB pack is already registered with name {}", pack.getName());
+			return true;
+		}
+
+		DDB.log.error("A DDB pack is already registered with name {}", pack.getName());
+		return false;
 	}
 
 	/**
@@ -169,9 +262,27 @@ public class DDB implements IMalisisMod
 	 */
 	public static DDBBlock getBlock(String packName, String blockName)
 	{
+		BlockIndex index = BlockIndex.get();
+		if (index != null)
+			return index.getBlock(packName + "_" + blockName);
+
 		BlockPack pack = getPack(packName);
 		if (pack == null)
 			return null;
-		return pack.getBlock(blockName);
+		return pack.getBlock(packName + "_" + blockName);
+	}
+
+	/**
+	 * Gets a <code>DDBBlock</code> from its registered <i>name</i>, in the form <code>pack_block</code>.<br>
+	 * Safe to call from any thread once the blocks are registered.
+	 *
+	 * @param name
+	 * @return the <code>DDBBlock</code> if found or <b>null</b> if no block is registered with that name, or if the blocks are not
+	 *         registered yet
+	 */
+	public static DDBBlock getBlock(String name)
+	{
+		BlockIndex index = BlockIndex.get();
+		return index != null ? index.getBlock(name) : null;
 	}
 }
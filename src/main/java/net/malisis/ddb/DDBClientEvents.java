@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import net.malisis.ddb.texture.AnimationGroup;
+import net.malisis.ddb.texture.DecodedTextureCache;
+import net.malisis.ddb.texture.TextureHeader;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.inventory.GuiContainerCreative;
+import net.minecraftforge.client.event.GuiScreenEvent;
+import net.minecraftforge.client.event.TextureStitchEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client events for the DDB textures and their animations.
+ *
+ * @author Ordinastie
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class DDBClientEvents
+{
+	private long stitchStart;
+	private boolean footprintLogged = false;
+
+	@SubscribeEvent
+	public void onTextureStitchPre(TextureStitchEvent.Pre event)
+	{
+		stitchStart = System.nanoTime();
+
+		//pick up the files changed since the last reload
+		for (BlockPack pack : DDB.getListPacks())
+			pack.refreshIndex();
+
+		if (event.getMap() == Minecraft.getMinecraft().getTextureMapBlocks())
+		{
+			AnimationGroup.clear();
+			preloadTextures();
+		}
+	}
+
+	/**
+	 * Probes the headers of all the DDB textures, then decodes them in parallel, before the atlas loads them one by one.<br>
+	 * The sizes are known before any pixel is decoded, so the oversized textures are rejected without being decoded. The textures already
+	 * in the {@link DecodedTextureCache} take their size from the cache instead of their file.
+	 */
+	private void preloadTextures()
+	{
+		List<DDBIcon> icons = DDB.getListPacks().stream().flatMap(p -> p.getIcons().stream()).collect(Collectors.toList());
+		List<TextureHeader> headers = icons.parallelStream().map(DDBIcon::probe).filter(Objects::nonNull).collect(Collectors.toList());
+
+		long pixels = 0;
+		int largest = 0;
+		int oversized = 0;
+		for (TextureHeader header : headers)
+		{
+			if (header.isOversized())
+			{
+				oversized++;
+				continue;
+			}
+			pixels += header.getAtlasPixels();
+			largest = Math.max(largest, header.getWidth());
+		}
+		DDB.log.info("Loading {} DDB textures, {} probed : {}px of atlas, largest {}px, {} oversized.", icons.size(), headers.size(), pixels,
+				largest, oversized);
+
+		icons.parallelStream().forEach(DDBIcon::preload);
+	}
+
+	@SubscribeEvent
+	public void onTextureStitchPost(TextureStitchEvent.Post event)
+	{
+		DDBMetrics.texturesReloaded(System.nanoTime() - stitchStart);
+
+		//all the sprites are sliced, the sheets are decoded again on the next reload
+		for (BlockPack pack : DDB.getListPacks())
+			pack.clearSpriteSheets();
+
+		//the atlas is uploaded, the GPU holds the pixels now
+		if (DDBIcon.releaseTextureData)
+			for (BlockPack pack : DDB.getListPacks())
+				for (DDBIcon icon : pack.getIcons())
+					icon.releaseTextureData();
+
+		//the frame data is only known once the textures are loaded
+		if (!footprintLogged)
+		{
+			FootprintReport.log();
+			footprintLogged = true;
+		}
+	}
+
+	@SubscribeEvent
+	public void onKeyboardInput(GuiScreenEvent.KeyboardInputEvent.Post event)
+	{
+		//the creative GUI updated its search, list the results of the DDB tab
+		if (event.getGui() instanceof GuiContainerCreative)
+			DDBTab.updateSearch((GuiContainerCreative) event.getGui());
+	}
+
+	@SubscribeEvent
+	public void onClientTick(TickEvent.ClientTickEvent event)
+	{
+		//the atlas animations are only updated while the game runs
+		if (event.phase == TickEvent.Phase.START && !Minecraft.getMinecraft().isGamePaused())
+			AnimationGroup.tick();
+	}
+}
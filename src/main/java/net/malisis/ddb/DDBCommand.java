@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.malisis.ddb.texture.RawTextureConverter;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+
+/**
+ * The <code>/ddb</code> command.
+ *
+ * @author Ordinastie
+ *
+ */
+public class DDBCommand extends CommandBase
+{
+	private static final String[] subCommands = { "metrics", "footprint" };
+
+	@Override
+	public String getName()
+	{
+		return "ddb";
+	}
+
+	@Override
+	public String getUsage(ICommandSender sender)
+	{
+		return "/ddb <metrics [reset] | footprint>";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel()
+	{
+		return 2;
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException
+	{
+		if (args.length == 0)
+			throw new WrongUsageException(getUsage(sender));
+
+		switch (args[0])
+		{
+			case "metrics":
+				if (args.length > 1 && args[1].equals("reset"))
+				{
+					DDBMetrics.instance.reset();
+					send(sender, "DDB metrics reset.");
+				}
+				else
+					DDBMetrics.instance.getSummary().forEach(line -> send(sender, line));
+				break;
+			case "footprint":
+				FootprintReport.format(FootprintReport.compute()).forEach(line -> send(sender, line));
+				break;
+			default:
+				throw new WrongUsageException(getUsage(sender));
+		}
+	}
+
+	protected void send(ICommandSender sender, String text)
+	{
+		sender.sendMessage(new TextComponentString(text));
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos pos)
+	{
+		if (args.length == 1)
+			return getListOfStringsMatchingLastWord(args, subCommands);
+		if (args.length == 2 && args[0].equals("metrics"))
+			return getListOfStringsMatchingLastWord(args, "reset");
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Client side version of the command, named <code>/ddbc</code> so it doesn't hide the <code>/ddb</code> command of the server. It only
+	 * ever runs on the local client, so it doesn't require operator rights.<br>
+	 * Also converts the textures of a pack, which are only ever used on the client.
+	 */
+	public static class Client extends DDBCommand
+	{
+		private static final String[] clientSubCommands = { "metrics", "footprint", "convert" };
+
+		@Override
+		public String getName()
+		{
+			return "ddbc";
+		}
+
+		@Override
+		public String getUsage(ICommandSender sender)
+		{
+			return "/ddbc <metrics [reset] | footprint | convert <pack>>";
+		}
+
+		@Override
+		public boolean checkPermission(MinecraftServer server, ICommandSender sender)
+		{
+			return true;
+		}
+
+		@Override
+		public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException
+		{
+			if (args.length == 0 || !args[0].equals("convert"))
+			{
+				super.execute(server, sender, args);
+				return;
+			}
+
+			if (args.length < 2)
+				throw new WrongUsageException(getUsage(sender));
+			convert(sender, args[1]);
+		}
+
+		private void convert(ICommandSender sender, String packName) throws CommandException
+		{
+			BlockPack pack = DDB.getPack(packName);
+			if (pack == null)
+				throw new CommandException("Pack " + packName + " not found.");
+
+			try
+			{
+				int count = RawTextureConverter.convert(pack);
+				send(sender, "Converted " + count + " textures in " + packName + ", they will be used on the next resource reload.");
+			}
+			catch (IOException e)
+			{
+				DDB.log.error("Failed to convert the textures of {} :", packName, e);
+				throw new CommandException("Failed to convert " + packName + " : " + e.getMessage());
+			}
+		}
+
+		@Override
+		public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos pos)
+		{
+			if (args.length == 1)
+				return getListOfStringsMatchingLastWord(args, clientSubCommands);
+			if (args.length == 2 && args[0].equals("convert"))
+				return getListOfStringsMatchingLastWord(args, DDB.getListPacks().stream().map(BlockPack::getName).collect(Collectors.toList()));
+			return super.getTabCompletions(server, sender, args, pos);
+		}
+	}
+}
@@ -30,7 +30,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -43,6 +45,12 @@ import net.malisis.core.asm.AsmUtils;
 import net.malisis.core.renderer.icon.Icon;
 import net.malisis.core.util.ItemUtils;
 import net.malisis.core.util.Silenced;
+import net.malisis.ddb.texture.AnimationGroup;
+import net.malisis.ddb.texture.DecodedTextureCache;
+import net.malisis.ddb.texture.PackedFrames;
+import net.malisis.ddb.texture.RawTexture;
+import net.malisis.ddb.texture.SpriteSheet;
+import net.malisis.ddb.texture.TextureHeader;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.texture.TextureUtil;
@@ -65,6 +73,15 @@ public class DDBIcon extends Icon
 																					"animationMetadata",
 																					"field_110982_k");
 
+	/** Whether the pixel data is released once uploaded, see {@link #releaseTextureData()}. */
+	public final static boolean releaseTextureData = Boolean.getBoolean("ddb.releaseTextureData");
+	static
+	{
+		//the cache would keep a full copy of every texture, which is what releasing the data is meant to avoid
+		if (releaseTextureData)
+			DDB.log.info("ddb.releaseTextureData is set, the decoded texture cache is disabled.");
+	}
+
 	private final static MetadataSerializer serializer = new MetadataSerializer();
 	static
 	{
@@ -73,6 +90,20 @@ public class DDBIcon extends Icon
 
 	private String path;
 	private BlockPack pack;
+	/** Animation set for the last load, also stored in the private field of {@link TextureAtlasSprite}. */
+	private AnimationMetadataSection animation;
+	/** Group sharing the timeline of the animation, <code>null</code> if not animated or interpolated. */
+	private AnimationGroup animationGroup;
+	/** Index of the frame currently in the atlas. */
+	private int uploadedFrame;
+	/** Compact frames of the animation, once the frame data is released. */
+	private PackedFrames packedFrames;
+	/** Buffer the packed frames are unpacked into for upload. */
+	private int[][] unpackedFrame;
+	/** Dimensions read from the texture file header, see {@link #probe()}. */
+	private TextureHeader header;
+	/** Whether the frames were loaded ahead of the atlas for the current reload. */
+	private boolean preloaded;
 
 	public DDBIcon(String name, BlockPack pack, String path)
 	{
@@ -90,22 +121,81 @@ public class DDBIcon extends Icon
 	@Override
 	public boolean load(IResourceManager manager, ResourceLocation location)
 	{
+		//already decoded in parallel when the stitching started
+		if (preloaded)
+			preloaded = false;
+		else
+			preload();
+
+		return false;
+	}
+
+	/**
+	 * Loads the frames of this {@link DDBIcon} ahead of the atlas.<br>
+	 * Only touches the state of this icon, so all the icons can be preloaded in parallel once their headers are {@link #probe() probed},
+	 * the following {@link #load(IResourceManager, ResourceLocation)} then uses the frames already there.
+	 */
+	public void preload()
+	{
+		long start = System.nanoTime();
 		try
 		{
 			loadSpriteFrames(null, Minecraft.getMinecraft().gameSettings.mipmapLevels + 1);
+			preloaded = true;
 		}
 		catch (Exception e)
 		{
 			DDB.log.error("Using loading texture " + path, e);
 		}
+		DDBMetrics.textureLoaded(System.nanoTime() - start);
+	}
 
-		return false;
+	/**
+	 * Reads the dimensions of the texture of this {@link DDBIcon} from the header of its file, without decoding it.<br>
+	 * Textures served by the {@link DecodedTextureCache} are not opened, their dimensions are kept in the cache entry. Sprite sheets are
+	 * not probed, their image is decoded once for all their sprites anyway.
+	 *
+	 * @return the header, <code>null</code> if the texture is in a sprite sheet or could not be read
+	 */
+	public TextureHeader probe()
+	{
+		DecodedTextureCache.Entry cached = DecodedTextureCache.get(pack, path, getSourceStamp());
+		if (cached != null)
+			return header = cached.getHeader();
+
+		header = null;
+		if (path.indexOf(SpriteSheet.SEPARATOR) != -1)
+			return null;
+
+		if (useRawTexture(false))
+		{
+			try (InputStream raw = pack.getInputStream(path + RawTexture.EXTENSION))
+			{
+				if (raw != null)
+					return header = RawTexture.readHeader(raw);
+			}
+			catch (IOException e)
+			{
+				return null;
+			}
+		}
+
+		try (InputStream png = pack.getInputStream(path + ".png"))
+		{
+			if (png != null)
+				header = TextureHeader.readPng(png);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+		return header;
 	}
 
-	private void addFrame(BufferedImage img, int index, int mipmapLevels)
+	private void addFrame(int[] pixels, int index, int mipmapLevels)
 	{
 		int[][] mipmaps = new int[mipmapLevels][];
-		mipmaps[0] = getFrame(img, index);
+		mipmaps[0] = pixels;
 
 		while (framesTextureData.size() <= index)
 			framesTextureData.add(null);
@@ -125,15 +215,168 @@ public class DDBIcon extends Icon
 	@Override
 	public void loadSpriteFrames(IResource resource, int mipmapLevels) throws IOException
 	{
-		InputStream stream = pack.getInputStream(path + ".png");
-		if (stream == null)
+		clearFramesTextureData();
+		saveAnimationMetadata(null);
+		packedFrames = null;
+		unpackedFrame = null;
+
+		long stamp = getSourceStamp();
+		DecodedTextureCache.Entry cached = DecodedTextureCache.get(pack, path, stamp);
+		if (cached != null)
+		{
+			width = cached.getWidth();
+			height = cached.getHeight();
+			for (int i = 0; i < cached.getFrameCount(); i++)
+			{
+				int[] frame = cached.getFrame(i);
+				if (frame != null)
+					addFrame(frame, i, mipmapLevels);
+			}
+			saveAnimationMetadata(cached.getAnimation());
+			DDBMetrics.textureCacheHit();
+		}
+		else
 		{
-			DDB.log.error("Using missing texture, file not found : " + path);
+			decodeSpriteFrames(mipmapLevels);
+			if (!releaseTextureData && !framesTextureData.isEmpty())
+			{
+				int[][] frames = new int[framesTextureData.size()][];
+				for (int i = 0; i < frames.length; i++)
+					frames[i] = framesTextureData.get(i) != null ? framesTextureData.get(i)[0] : null;
+				DecodedTextureCache.put(pack, path, stamp, width, height, frames, animation);
+			}
+		}
+
+		//the atlas holds the first frame once stitched
+		animationGroup = animation != null ? AnimationGroup.get(animation, framesTextureData.size()) : null;
+		uploadedFrame = 0;
+	}
+
+	@Override
+	public void updateAnimation()
+	{
+		if (animationGroup == null)
+		{
+			super.updateAnimation();
 			return;
 		}
 
-		BufferedImage img = TextureUtil.readBufferedImage(stream);
-		AnimationMetadataSection animMetadata = readAnimation();
+		int frame = animationGroup.getFrameIndex();
+		if (frame == uploadedFrame || frame < 0)
+			return;
+
+		int[][] data;
+		if (packedFrames != null)
+		{
+			if (frame >= packedFrames.getFrameCount())
+				return;
+			data = unpackedFrame = packedFrames.unpack(frame, unpackedFrame);
+		}
+		else
+			data = frame < framesTextureData.size() ? framesTextureData.get(frame) : null;
+
+		if (data == null)
+			return;
+
+		TextureUtil.uploadTextureMipmap(data, width, height, originX, originY, false, false);
+		uploadedFrame = frame;
+	}
+
+	/**
+	 * Releases the pixel data of this {@link DDBIcon} once it is uploaded to the atlas.<br>
+	 * Static textures drop their frames entirely. Animated textures advanced through an {@link AnimationGroup} keep their frames as
+	 * {@link PackedFrames}, unpacked on upload. Interpolated animations still need the full frames every tick and are left as they are.<br>
+	 * The frames are loaded again from the pack the next time the atlas is built, the {@link DecodedTextureCache} is not used in that mode.
+	 */
+	public void releaseTextureData()
+	{
+		if (framesTextureData.isEmpty())
+			return;
+
+		if (!hasAnimationMetadata())
+			clearFramesTextureData();
+		else if (animationGroup != null)
+		{
+			packedFrames = PackedFrames.pack(framesTextureData);
+			clearFramesTextureData();
+		}
+	}
+
+	/**
+	 * Gets a stamp for the files this {@link DDBIcon} is decoded from, changing whenever one of them changes.
+	 *
+	 * @return the stamp
+	 */
+	private long getSourceStamp()
+	{
+		int index = path.indexOf(SpriteSheet.SEPARATOR);
+		if (index != -1)
+		{
+			String sheet = path.substring(0, index);
+			return pack.getStamp(sheet + ".png") * 31 + pack.getStamp(sheet + ".sheet.json");
+		}
+
+		long stamp = pack.getStamp(path + RawTexture.EXTENSION);
+		stamp = stamp * 31 + pack.getStamp(path + ".png");
+		return stamp * 31 + pack.getStamp(path + ".png.mcmeta");
+	}
+
+	/**
+	 * Decodes the frames of this {@link DDBIcon} from the sprite sheet, raw texture or PNG file of its path.
+	 *
+	 * @param mipmapLevels the mipmap levels
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void decodeSpriteFrames(int mipmapLevels) throws IOException
+	{
+		BufferedImage img;
+		AnimationMetadataSection animMetadata;
+
+		TextureHeader header = this.header != null ? this.header : probe();
+		if (header != null && header.isOversized())
+		{
+			DDB.log.error("Using missing texture, {} is too large ({}, max {}px)", path, header, TextureHeader.maxSize);
+			return;
+		}
+
+		int index = path.indexOf(SpriteSheet.SEPARATOR);
+		if (index != -1)
+		{
+			String sprite = path.substring(index + 1);
+			SpriteSheet sheet = pack.getSpriteSheet(path.substring(0, index));
+			if (sheet == null)
+			{
+				DDB.log.error("Using missing texture, sprite sheet not found : " + path);
+				return;
+			}
+
+			img = sheet.getImage(sprite);
+			animMetadata = sheet.getAnimation(sprite);
+			if (img == null)
+			{
+				DDB.log.error("Using missing texture, sprite not found in sheet : " + path);
+				return;
+			}
+		}
+		else
+		{
+			InputStream rawStream = useRawTexture(true) ? pack.getInputStream(path + RawTexture.EXTENSION) : null;
+			if (rawStream != null)
+			{
+				loadRawFrames(RawTexture.read(rawStream), mipmapLevels);
+				return;
+			}
+
+			InputStream stream = pack.getInputStream(path + ".png");
+			if (stream == null)
+			{
+				DDB.log.error("Using missing texture, file not found : " + path);
+				return;
+			}
+
+			img = TextureUtil.readBufferedImage(stream);
+			animMetadata = readAnimation();
+		}
 
 		if (img == null)
 		{
@@ -141,21 +384,74 @@ public class DDBIcon extends Icon
 			return;
 		}
 
-		width = img.getWidth();
-		height = width;
+		loadFrames(img.getWidth(), img.getHeight() / img.getWidth(), i -> getFrame(img, i), animMetadata, mipmapLevels);
+	}
+
+	/**
+	 * Checks whether the {@link RawTexture} of this {@link DDBIcon} should be used.<br>
+	 * It must exist and must not be older than the PNG file and its metadata, otherwise the PNG was edited after the conversion.
+	 *
+	 * @param warn whether to log a stale raw texture
+	 * @return true, if the raw texture is up to date
+	 */
+	private boolean useRawTexture(boolean warn)
+	{
+		long raw = pack.getLastModified(path + RawTexture.EXTENSION);
+		if (raw == -1)
+			return false;
+		if (raw >= pack.getLastModified(path + ".png") && raw >= pack.getLastModified(path + ".png.mcmeta"))
+			return true;
+
+		if (warn)
+			DDB.log.warn("{}{} in pack {} is older than its PNG, using the PNG. Use /ddbc convert {} to update it.", path,
+					RawTexture.EXTENSION, pack.getName(), pack.getName());
+		return false;
+	}
+
+	/**
+	 * Loads the frames of this {@link DDBIcon} from a pre-decoded {@link RawTexture}.<br>
+	 * The pixels are used as they are read, without any intermediate image.
+	 *
+	 * @param raw the raw texture
+	 * @param mipmapLevels the mipmap levels
+	 */
+	private void loadRawFrames(RawTexture raw, int mipmapLevels)
+	{
+		int size = raw.getWidth() * raw.getWidth();
+		AnimationMetadataSection animMetadata = raw.getMetadata() != null ? parseAnimation(raw.getMetadata()) : null;
+		loadFrames(raw.getWidth(), raw.getFrameCount(), index -> {
+			if (index >= raw.getFrameCount())
+				return new int[size];
+			int[] frame = raw.getFrame(index);
+			return frame.length == size ? frame : Arrays.copyOf(frame, size);
+		}, animMetadata, mipmapLevels);
+	}
+
+	/**
+	 * Splits the texture into the frames of this {@link DDBIcon}.
+	 *
+	 * @param width the width of the texture
+	 * @param nbFrames the number of square frames in the texture
+	 * @param frames the function providing the pixels of a frame
+	 * @param animMetadata the anim metadata
+	 * @param mipmapLevels the mipmap levels
+	 */
+	private void loadFrames(int width, int nbFrames, IntFunction<int[]> frames, AnimationMetadataSection animMetadata, int mipmapLevels)
+	{
+		this.width = width;
+		this.height = width;
 
 		if (animMetadata == null)
 		{
-			addFrame(img, 0, mipmapLevels);
+			addFrame(frames.apply(0), 0, mipmapLevels);
 			return;
 		}
 
-		int nbFrames = img.getHeight() / this.width;
 		boolean hasFrameCount = animMetadata.getFrameCount() > 0;
 
 		//add frames
 		IntStream is = hasFrameCount ? getFrameIndexStream(animMetadata, nbFrames) : IntStream.rangeClosed(0, nbFrames);
-		is.forEach(index -> addFrame(img, index, mipmapLevels));
+		is.forEach(index -> addFrame(frames.apply(index), index, mipmapLevels));
 		is.close();
 
 		//make the AnimationFrame list
@@ -180,6 +476,7 @@ public class DDBIcon extends Icon
 
 	private void saveAnimationMetadata(AnimationMetadataSection animationMetadata)
 	{
+		animation = animationMetadata;
 		Silenced.exec(() -> animationMetadataField.set(this, animationMetadata));
 	}
 
@@ -198,9 +495,7 @@ public class DDBIcon extends Icon
 				return null;
 			bufferedreader = new BufferedReader(new InputStreamReader(stream));
 			JsonObject json = (new JsonParser()).parse(bufferedreader).getAsJsonObject();
-
-			AnimationMetadataSection animMetadata = (AnimationMetadataSection) serializer.parseMetadataSection("animation", json);
-			return animMetadata;
+			return parseAnimation(json);
 		}
 		catch (IOException e)
 		{
@@ -212,8 +507,42 @@ public class DDBIcon extends Icon
 		}
 	}
 
+	/**
+	 * Parses the <code>animation</code> section of the <i>json</i>.
+	 *
+	 * @param json the json
+	 * @return the animation metadata
+	 */
+	public static AnimationMetadataSection parseAnimation(JsonObject json)
+	{
+		return (AnimationMetadataSection) serializer.parseMetadataSection("animation", json);
+	}
+
+	/**
+	 * Gets the number of bytes retained by the frame data of this {@link DDBIcon}.
+	 *
+	 * @return the bytes
+	 */
+	public long getRetainedBytes()
+	{
+		long bytes = 0;
+		for (int[][] mipmaps : framesTextureData)
+		{
+			if (mipmaps == null)
+				continue;
+			bytes += 16 + 4 * mipmaps.length;
+			for (int[] data : mipmaps)
+				if (data != null)
+					bytes += 16 + 4L * data.length;
+		}
+		if (packedFrames != null)
+			bytes += packedFrames.getBytes();
+		return bytes;
+	}
+
 	public static Icon getIcon(String name, BlockPack pack, String path)
 	{
+		DDBMetrics.iconLookup();
 		if (path.indexOf(":") != -1)
 		{
 			ItemStack itemStack = ItemUtils.getItemStack(path);
@@ -227,8 +556,9 @@ public class DDBIcon extends Icon
 		if (icon != null)
 			return icon;
 
-		icon = new DDBIcon(name, pack, path);
-		registeredIcons.put(icon.getIconName(), icon);
-		return icon;
+		DDBIcon ddbIcon = new DDBIcon(name, pack, path);
+		registeredIcons.put(ddbIcon.getIconName(), ddbIcon);
+		pack.addIcon(ddbIcon);
+		return ddbIcon;
 	}
 }
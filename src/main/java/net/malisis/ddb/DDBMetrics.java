@@ -0,0 +1,336 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Runtime counters and timers for the DDB hot paths.<br>
+ * All the counters are {@link LongAdder LongAdders}, which are striped per thread, so recording never contends. The values are exposed
+ * through the <code>/ddb metrics</code> (server) and <code>/ddbc metrics</code> (client) commands and JMX, and can be dumped periodically to
+ * a CSV file with the <code>ddb.metrics.csv</code> (file) and <code>ddb.metrics.interval</code> (seconds) system properties.
+ *
+ * @author Ordinastie
+ *
+ */
+public class DDBMetrics implements DDBMetricsMBean
+{
+	public static final DDBMetrics instance = new DDBMetrics();
+
+	private final LongAdder[] sideCalls = new LongAdder[BlockType.values().length];
+	private final LongAdder[] sideCulls = new LongAdder[BlockType.values().length];
+	private final LongAdder iconLookups = new LongAdder();
+	private final Timer textureLoads = new Timer();
+	private final LongAdder textureCacheHits = new LongAdder();
+	private final Timer textureReloads = new Timer();
+	private final Timer langReloads = new Timer();
+	private final LongAdder recipeMatches = new LongAdder();
+	private final LongAdder recipeHits = new LongAdder();
+
+	private ScheduledExecutorService csvExecutor;
+
+	private DDBMetrics()
+	{
+		for (int i = 0; i < sideCalls.length; i++)
+		{
+			sideCalls[i] = new LongAdder();
+			sideCulls[i] = new LongAdder();
+		}
+	}
+
+	public static void sideRendered(BlockType type, boolean rendered)
+	{
+		instance.sideCalls[type.ordinal()].increment();
+		if (!rendered)
+			instance.sideCulls[type.ordinal()].increment();
+	}
+
+	public static void iconLookup()
+	{
+		instance.iconLookups.increment();
+	}
+
+	public static void textureLoaded(long nanos)
+	{
+		instance.textureLoads.add(nanos);
+	}
+
+	public static void textureCacheHit()
+	{
+		instance.textureCacheHits.increment();
+	}
+
+	public static void texturesReloaded(long nanos)
+	{
+		instance.textureReloads.add(nanos);
+	}
+
+	public static void langReloaded(long nanos)
+	{
+		instance.langReloads.add(nanos);
+	}
+
+	public static void recipeMatched(boolean matches)
+	{
+		instance.recipeMatches.increment();
+		if (matches)
+			instance.recipeHits.increment();
+	}
+
+	@Override
+	public long getSideRenderCalls()
+	{
+		long total = 0;
+		for (LongAdder adder : sideCalls)
+			total += adder.sum();
+		return total;
+	}
+
+	@Override
+	public long getSideRenderCulls()
+	{
+		long total = 0;
+		for (LongAdder adder : sideCulls)
+			total += adder.sum();
+		return total;
+	}
+
+	@Override
+	public String[] getSideRenderStats()
+	{
+		List<String> stats = new ArrayList<>();
+		for (BlockType type : BlockType.values())
+		{
+			long calls = sideCalls[type.ordinal()].sum();
+			if (calls != 0)
+				stats.add(type + " : " + calls + " calls, " + sideCulls[type.ordinal()].sum() + " culled");
+		}
+		return stats.toArray(new String[0]);
+	}
+
+	@Override
+	public long getIconLookups()
+	{
+		return iconLookups.sum();
+	}
+
+	@Override
+	public long getTextureLoads()
+	{
+		return textureLoads.count.sum();
+	}
+
+	@Override
+	public long getTextureLoadMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(textureLoads.nanos.sum());
+	}
+
+	@Override
+	public long getTextureCacheHits()
+	{
+		return textureCacheHits.sum();
+	}
+
+	@Override
+	public long getTextureReloads()
+	{
+		return textureReloads.count.sum();
+	}
+
+	@Override
+	public long getLastTextureReloadMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(textureReloads.last);
+	}
+
+	@Override
+	public long getMaxTextureReloadMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(textureReloads.max.get());
+	}
+
+	@Override
+	public long getLangReloads()
+	{
+		return langReloads.count.sum();
+	}
+
+	@Override
+	public long getLangReloadMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(langReloads.nanos.sum());
+	}
+
+	@Override
+	public long getRecipeMatchAttempts()
+	{
+		return recipeMatches.sum();
+	}
+
+	@Override
+	public long getRecipeMatches()
+	{
+		return recipeHits.sum();
+	}
+
+	@Override
+	public void reset()
+	{
+		for (int i = 0; i < sideCalls.length; i++)
+		{
+			sideCalls[i].reset();
+			sideCulls[i].reset();
+		}
+		iconLookups.reset();
+		textureLoads.reset();
+		textureCacheHits.reset();
+		textureReloads.reset();
+		langReloads.reset();
+		recipeMatches.reset();
+		recipeHits.reset();
+	}
+
+	/**
+	 * Gets a readable summary of the metrics.
+	 *
+	 * @return the lines
+	 */
+	public List<String> getSummary()
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add("Side rendering : " + getSideRenderCalls() + " calls, " + getSideRenderCulls() + " culled");
+		for (String stat : getSideRenderStats())
+			lines.add("  " + stat);
+		lines.add("Icon lookups : " + getIconLookups());
+		lines.add("Texture loads : " + getTextureLoads() + " in " + getTextureLoadMillis() + "ms, " + getTextureCacheHits() + " from cache");
+		lines.add("Texture reloads : " + getTextureReloads() + ", last " + getLastTextureReloadMillis() + "ms, max "
+				+ getMaxTextureReloadMillis() + "ms");
+		lines.add("Lang reloads : " + getLangReloads() + " in " + getLangReloadMillis() + "ms");
+		lines.add("Recipe matches : " + getRecipeMatches() + " / " + getRecipeMatchAttempts() + " attempts");
+		return lines;
+	}
+
+	/**
+	 * Registers the metrics in JMX, and starts the CSV dump if configured.
+	 */
+	public static void register()
+	{
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName("net.malisis.ddb:type=Metrics"));
+		}
+		catch (JMException e)
+		{
+			DDB.log.error("Could not register DDB metrics in JMX : {}", e.getMessage());
+		}
+
+		String csv = System.getProperty("ddb.metrics.csv");
+		if (csv != null)
+			instance.startCsvDump(new File(csv), Long.getLong("ddb.metrics.interval", 60));
+	}
+
+	private void startCsvDump(File file, long interval)
+	{
+		if (csvExecutor != null)
+			return;
+
+		csvExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "DDB metrics dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+		csvExecutor.scheduleAtFixedRate(() -> dumpCsv(file), interval, interval, TimeUnit.SECONDS);
+		DDB.log.info("Dumping DDB metrics to {} every {}s", file.getAbsolutePath(), interval);
+	}
+
+	private void dumpCsv(File file)
+	{
+		boolean header = !file.exists();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(file, true)))
+		{
+			if (header)
+			{
+				StringBuilder sb = new StringBuilder("time");
+				for (BlockType type : BlockType.values())
+					sb.append(',').append(type).append("_calls,").append(type).append("_culls");
+				sb.append(",icon_lookups,texture_loads,texture_load_ms,texture_cache_hits,texture_reloads,last_texture_reload_ms,lang_reloads,lang_reload_ms");
+				sb.append(",recipe_match_attempts,recipe_matches");
+				writer.println(sb);
+			}
+
+			StringBuilder sb = new StringBuilder().append(System.currentTimeMillis());
+			for (BlockType type : BlockType.values())
+				sb.append(',').append(sideCalls[type.ordinal()].sum()).append(',').append(sideCulls[type.ordinal()].sum());
+			sb.append(',').append(getIconLookups());
+			sb.append(',').append(getTextureLoads()).append(',').append(getTextureLoadMillis()).append(',').append(getTextureCacheHits());
+			sb.append(',').append(getTextureReloads()).append(',').append(getLastTextureReloadMillis());
+			sb.append(',').append(getLangReloads()).append(',').append(getLangReloadMillis());
+			sb.append(',').append(getRecipeMatchAttempts()).append(',').append(getRecipeMatches());
+			writer.println(sb);
+		}
+		catch (IOException e)
+		{
+			DDB.log.error("Could not dump DDB metrics to {} : {}", file, e.getMessage());
+		}
+	}
+
+	private static class Timer
+	{
+		private final LongAdder count = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+		private volatile long last;
+
+		private void add(long time)
+		{
+			count.increment();
+			nanos.add(time);
+			max.accumulate(time);
+			last = time;
+		}
+
+		private void reset()
+		{
+			count.reset();
+			nanos.reset();
+			max.reset();
+			last = 0;
+		}
+	}
+}
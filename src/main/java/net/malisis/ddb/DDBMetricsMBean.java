@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+/**
+ * JMX view of the {@link DDBMetrics}.
+ *
+ * @author Ordinastie
+ *
+ */
+public interface DDBMetricsMBean
+{
+	public long getSideRenderCalls();
+
+	public long getSideRenderCulls();
+
+	public String[] getSideRenderStats();
+
+	public long getIconLookups();
+
+	public long getTextureLoads();
+
+	public long getTextureLoadMillis();
+
+	public long getTextureCacheHits();
+
+	public long getTextureReloads();
+
+	public long getLastTextureReloadMillis();
+
+	public long getMaxTextureReloadMillis();
+
+	public long getLangReloads();
+
+	public long getLangReloadMillis();
+
+	public long getRecipeMatchAttempts();
+
+	public long getRecipeMatches();
+
+	public void reset();
+}
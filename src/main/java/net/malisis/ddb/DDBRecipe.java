@@ -28,9 +28,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import net.malisis.core.util.ItemUtils;
-import net.malisis.ddb.block.DDBBlock;
+import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
 import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
@@ -38,8 +39,6 @@ import net.minecraftforge.oredict.ShapelessOreRecipe;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.common.collect.Lists;
-
 /**
  * @author Ordinastie
  *
@@ -51,69 +50,115 @@ public class DDBRecipe
 	public int metadata = 0;
 	public boolean shapeless = false;
 
+	/**
+	 * Gets the ingredient for the specified string.<br>
+	 * Only reads the registries, so it can be called from any thread once the items are registered.
+	 *
+	 * @param str the str
+	 * @return the ore name or the {@link ItemStack}, <code>null</code> if no ingredient matches
+	 */
 	private Object getItem(String str)
 	{
-		if (OreDictionary.getOres(str).size() > 0)
-			return str;
-
 		if (StringUtils.isEmpty(str))
 			return null;
 
-		return ItemUtils.getItemStack(str);
+		if (!OreDictionary.getOres(str, false).isEmpty())
+			return str;
+
+		ItemStack itemStack = ItemUtils.getItemStack(str);
+		return itemStack != null && !itemStack.isEmpty() ? itemStack : null;
 	}
 
-	public IRecipe createRecipe(DDBBlock block)
+	/**
+	 * Creates the {@link IRecipe} for this {@link DDBRecipe}.<br>
+	 * Unknown ingredients are added to <i>errors</i> and no recipe is created.
+	 *
+	 * @param output the output
+	 * @param errors the errors
+	 * @return the recipe, <code>null</code> if invalid
+	 */
+	public IRecipe createRecipe(ItemStack output, List<String> errors)
 	{
+		if (items == null || items.length == 0)
+		{
+			errors.add("empty recipe for " + output.getItem().getRegistryName());
+			return null;
+		}
+
+		ItemStack result = new ItemStack(output.getItem(), amount, metadata);
 		if (shapeless)
-			return createShapelessRecipe(block);
+			return createShapelessRecipe(result, errors);
 		else
-			return createShapedRecipe(block);
+			return createShapedRecipe(result, errors);
 	}
 
-	public IRecipe createShapelessRecipe(DDBBlock block)
+	private IRecipe createShapelessRecipe(ItemStack output, List<String> errors)
 	{
 		List<Object> recipe = new ArrayList<>();
+		boolean valid = true;
 		for (String[] row : items)
 			for (String itemString : row)
 			{
+				if (StringUtils.isEmpty(itemString))
+					continue;
+
 				Object item = getItem(itemString);
 				if (item == null)
-					return null;
+				{
+					errors.add(unknownIngredient(output, itemString));
+					valid = false;
+				}
 				recipe.add(item);
 			}
 
-		return new ShapelessOreRecipe(new ItemStack(block, amount, metadata), recipe.toArray());
+		return valid ? new ShapelessRecipe(output, recipe.toArray()) : null;
 	}
 
-	public IRecipe createShapedRecipe(DDBBlock block)
+	private IRecipe createShapedRecipe(ItemStack output, List<String> errors)
 	{
 		char c = 'A';
-		List<Object> recipe = Lists.newArrayList();
-		List<Object> strRecipes = Lists.newArrayList();
+		List<Object> recipe = new ArrayList<>();
+		List<Object> keys = new ArrayList<>();
+		StringBuilder sb = new StringBuilder(3);
+		boolean valid = true;
 
 		for (String[] row : items)
 		{
-			String strRecipe = "";
+			sb.setLength(0);
 			for (String itemString : row)
 			{
+				if (StringUtils.isEmpty(itemString))
+				{
+					sb.append(' ');
+					continue;
+				}
+
 				Object item = getItem(itemString);
 				if (item == null)
-					strRecipe += " ";
-				else
 				{
-					strRecipe += c;
-					recipe.add(c);
-					recipe.add(item);
-					c++;
+					errors.add(unknownIngredient(output, itemString));
+					valid = false;
+					sb.append(' ');
+					continue;
 				}
+
+				sb.append(c);
+				keys.add(c);
+				keys.add(item);
+				c++;
 			}
 
-			if (!StringUtils.isEmpty(strRecipe))
-				strRecipes.add(strRecipe);
+			if (sb.length() != 0)
+				recipe.add(sb.toString());
 		}
 
-		strRecipes.addAll(recipe);
-		return new ShapedOreRecipe(new ItemStack(block, amount, metadata), strRecipes.toArray());
+		recipe.addAll(keys);
+		return valid ? new ShapedRecipe(output, recipe.toArray()) : null;
+	}
+
+	private String unknownIngredient(ItemStack output, String itemString)
+	{
+		return "unknown ingredient '" + itemString + "' for " + output.getItem().getRegistryName() + " " + this;
 	}
 
 	@Override
@@ -121,4 +166,42 @@ public class DDBRecipe
 	{
 		return ArrayUtils.toString(items);
 	}
+
+	/**
+	 * {@link ShapedOreRecipe} recording its match attempts in the {@link DDBMetrics}.
+	 */
+	private static class ShapedRecipe extends ShapedOreRecipe
+	{
+		public ShapedRecipe(ItemStack result, Object... recipe)
+		{
+			super(result, recipe);
+		}
+
+		@Override
+		public boolean matches(InventoryCrafting inv, World world)
+		{
+			boolean matches = super.matches(inv, world);
+			DDBMetrics.recipeMatched(matches);
+			return matches;
+		}
+	}
+
+	/**
+	 * {@link ShapelessOreRecipe} recording its match attempts in the {@link DDBMetrics}.
+	 */
+	private static class ShapelessRecipe extends ShapelessOreRecipe
+	{
+		public ShapelessRecipe(ItemStack result, Object... recipe)
+		{
+			super(result, recipe);
+		}
+
+		@Override
+		public boolean matches(InventoryCrafting inv, World world)
+		{
+			boolean matches = super.matches(inv, world);
+			DDBMetrics.recipeMatched(matches);
+			return matches;
+		}
+	}
 }
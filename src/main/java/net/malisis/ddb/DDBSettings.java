@@ -0,0 +1,273 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Selects which packs and blocks are loaded, read from <code>config/ddb_settings.json</code>.<br>
+ * Each section has an <code>allow</code> and a <code>deny</code> list. An empty <code>allow</code> list allows everything, and
+ * <code>deny</code> always wins over <code>allow</code>.
+ *
+ * <pre>
+ * {
+ *     "packs": { "allow": [], "deny": ["hugepack"] },
+ *     "blocks": { "allow": [], "deny": ["*_glass", "mypack:debug_*"] },
+ *     "types": { "allow": [], "deny": ["CHEST"] }
+ * }
+ * </pre>
+ *
+ * Block patterns are globs (<code>*</code> and <code>?</code>) matched against the block name, optionally prefixed with
+ * <code>pack:</code> to only apply to one pack. Types are {@link BlockType} names.
+ *
+ * @author Ordinastie
+ *
+ */
+public class DDBSettings
+{
+	public static final String FILE = "config/ddb_settings.json";
+	/** Settings allowing every pack and block. */
+	public static final DDBSettings ALL = new DDBSettings(new Lists(), new Lists(), new Lists());
+
+	private final Set<String> allowedPacks;
+	private final Set<String> deniedPacks;
+	private final List<BlockPattern> allowedBlocks;
+	private final List<BlockPattern> deniedBlocks;
+	private final Set<BlockType> allowedTypes;
+	private final Set<BlockType> deniedTypes;
+
+	private DDBSettings(Lists packs, Lists blocks, Lists types)
+	{
+		allowedPacks = packs.allow;
+		deniedPacks = packs.deny;
+		allowedBlocks = BlockPattern.compile(blocks.allow);
+		deniedBlocks = BlockPattern.compile(blocks.deny);
+		allowedTypes = toTypes(types.allow);
+		deniedTypes = toTypes(types.deny);
+	}
+
+	/**
+	 * Checks whether the pack is loaded at all.
+	 *
+	 * @param pack the pack name
+	 * @return true, if allowed
+	 */
+	public boolean isPackAllowed(String pack)
+	{
+		if (deniedPacks.contains(pack))
+			return false;
+		return allowedPacks.isEmpty() || allowedPacks.contains(pack);
+	}
+
+	/**
+	 * Checks whether the block name is denied regardless of its type.
+	 *
+	 * @param pack the pack name
+	 * @param name the block name
+	 * @return true, if denied
+	 */
+	public boolean isBlockDenied(String pack, String name)
+	{
+		return BlockPattern.matches(deniedBlocks, pack, name);
+	}
+
+	/**
+	 * Checks whether the block name is allowed regardless of its type : not denied, and allowed if there is an <code>allow</code> list.
+	 *
+	 * @param pack the pack name
+	 * @param name the block name
+	 * @return true, if allowed
+	 */
+	public boolean isNameAllowed(String pack, String name)
+	{
+		if (isBlockDenied(pack, name))
+			return false;
+		return allowedBlocks.isEmpty() || BlockPattern.matches(allowedBlocks, pack, name);
+	}
+
+	/**
+	 * Checks whether a definition can be skipped before reading it.<br>
+	 * Neither its name nor the names of the members a family declared under it could expand to may be allowed, by the <code>deny</code>
+	 * and the <code>allow</code> lists.
+	 *
+	 * @param pack the pack name
+	 * @param name the definition name
+	 * @return true, if denied
+	 */
+	public boolean isDefinitionDenied(String pack, String name)
+	{
+		for (BlockType type : BlockType.values())
+			if (isNameAllowed(pack, BlockDescriptor.memberName(name, type)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks whether the type is allowed.
+	 *
+	 * @param type the type
+	 * @return true, if allowed
+	 */
+	public boolean isTypeAllowed(BlockType type)
+	{
+		if (deniedTypes.contains(type))
+			return false;
+		return allowedTypes.isEmpty() || allowedTypes.contains(type);
+	}
+
+	/**
+	 * Checks whether the block is loaded.
+	 *
+	 * @param pack the pack name
+	 * @param name the block name
+	 * @param type the block type
+	 * @return true, if allowed
+	 */
+	public boolean isBlockAllowed(String pack, String name, BlockType type)
+	{
+		return isTypeAllowed(type) && isNameAllowed(pack, name);
+	}
+
+	/**
+	 * Reads the settings from {@value #FILE}.<br>
+	 * Everything is allowed if the file doesn't exist or can't be read.
+	 *
+	 * @return the settings
+	 */
+	public static DDBSettings read()
+	{
+		File file = new File("./" + FILE);
+		if (!file.exists())
+			return ALL;
+
+		try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+		{
+			Json json = new Gson().fromJson(reader, Json.class);
+			if (json == null)
+				return ALL;
+			DDBSettings settings = new DDBSettings(Lists.of(json.packs), Lists.of(json.blocks), Lists.of(json.types));
+			DDB.log.info("Loaded DDB settings from {}", FILE);
+			return settings;
+		}
+		catch (IOException | JsonParseException | IllegalArgumentException e)
+		{
+			DDB.log.error("Failed to read {}, loading everything : {}", FILE, e.getMessage());
+			return ALL;
+		}
+	}
+
+	private static Set<BlockType> toTypes(Set<String> names)
+	{
+		Set<BlockType> types = EnumSet.noneOf(BlockType.class);
+		for (String name : names)
+			types.add(BlockType.valueOf(name.toUpperCase(Locale.ROOT)));
+		return types;
+	}
+
+	private static class Json
+	{
+		private Lists packs;
+		private Lists blocks;
+		private Lists types;
+	}
+
+	private static class Lists
+	{
+		private Set<String> allow = Collections.emptySet();
+		private Set<String> deny = Collections.emptySet();
+
+		private static Lists of(Lists lists)
+		{
+			Lists l = lists != null ? lists : new Lists();
+			if (l.allow == null)
+				l.allow = Collections.emptySet();
+			if (l.deny == null)
+				l.deny = Collections.emptySet();
+			return l;
+		}
+	}
+
+	private static class BlockPattern
+	{
+		private final String pack;
+		private final Pattern name;
+
+		private BlockPattern(String pattern)
+		{
+			int index = pattern.indexOf(':');
+			pack = index != -1 ? pattern.substring(0, index) : null;
+			name = toRegex(pattern.substring(index + 1));
+		}
+
+		private boolean matches(String pack, String name)
+		{
+			return (this.pack == null || this.pack.equals(pack)) && this.name.matcher(name).matches();
+		}
+
+		private static Pattern toRegex(String glob)
+		{
+			StringBuilder regex = new StringBuilder();
+			for (String part : glob.split("((?<=[*?])|(?=[*?]))"))
+			{
+				if (part.equals("*"))
+					regex.append(".*");
+				else if (part.equals("?"))
+					regex.append('.');
+				else if (!part.isEmpty())
+					regex.append(Pattern.quote(part));
+			}
+			return Pattern.compile(regex.toString());
+		}
+
+		private static List<BlockPattern> compile(Set<String> patterns)
+		{
+			List<BlockPattern> list = new ArrayList<>(patterns.size());
+			for (String pattern : patterns)
+				list.add(new BlockPattern(pattern));
+			return list;
+		}
+
+		private static boolean matches(List<BlockPattern> patterns, String pack, String name)
+		{
+			for (BlockPattern pattern : patterns)
+				if (pattern.matches(pack, name))
+					return true;
+			return false;
+		}
+	}
+}
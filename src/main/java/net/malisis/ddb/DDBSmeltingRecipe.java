@@ -25,7 +25,6 @@
 package net.malisis.ddb;
 
 import net.malisis.core.util.ItemUtils;
-import net.malisis.ddb.block.DDBBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.FurnaceRecipes;
 
@@ -38,13 +37,19 @@ public class DDBSmeltingRecipe
 	public String item;
 	public float xp = 0.1F;
 
-	public void addFurnaceRecipe(DDBBlock block)
+	/**
+	 * Gets the input {@link ItemStack} of this {@link DDBSmeltingRecipe}.
+	 *
+	 * @return the input, <code>null</code> if the item is unknown
+	 */
+	public ItemStack getInput()
 	{
 		ItemStack itemStack = ItemUtils.getItemStack(item);
-		if (itemStack == null)
-			return;
-
-		FurnaceRecipes.instance().addSmeltingRecipe(itemStack, new ItemStack(block), xp);
+		return itemStack != null && !itemStack.isEmpty() ? itemStack : null;
 	}
 
+	public void addFurnaceRecipe(ItemStack input, ItemStack output)
+	{
+		FurnaceRecipes.instance().addSmeltingRecipe(input, output, xp);
+	}
 }
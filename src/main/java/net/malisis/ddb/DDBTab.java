@@ -21,28 +21,206 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-
 package net.malisis.ddb;
 
+import java.lang.reflect.Field;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.malisis.core.asm.AsmUtils;
+import net.malisis.ddb.block.DDBBlock;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.client.gui.GuiTextField;
+import net.minecraft.client.gui.inventory.GuiContainerCreative;
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.init.Items;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
+ * Creative tab for the DDB blocks.<br>
+ * Each {@link BlockPack} gets its own tab holding its blocks, while the main tab lists the blocks of all the packs and has a search bar
+ * backed by a {@link TabSearchIndex}.<br>
+ * The main tab takes over the search of the creative GUI : while a query is typed, it lists nothing for the GUI to filter through the
+ * tooltips, and {@link #updateSearch(GuiContainerCreative)} fills the results of the index once the GUI handled the key. Without a query,
+ * or for a search, the main tab lists at most {@link #maxListed} stacks, while the pack tabs list all their blocks.<br>
+ * The item stacks are only built the first time a tab is opened, then copied from the cached list.
+ *
  * @author Ordinastie
  *
  */
 public class DDBTab extends CreativeTabs
 {
+	/** Most stacks listed at once in the main tab. */
+	private static final int maxListed = Integer.getInteger("ddb.tabLimit", 512);
+
+	/** Pack of this tab, <code>null</code> for the main tab. */
+	private final BlockPack pack;
+	private ItemStack icon;
+	private List<ItemStack> items;
+	@SideOnly(Side.CLIENT)
+	private TabSearchIndex searchIndex;
+
 	public DDBTab()
 	{
 		super(DDB.modid);
+		this.pack = null;
+		setBackgroundImageName("item_search.png");
+	}
+
+	public DDBTab(BlockPack pack)
+	{
+		super(DDB.modid + "." + pack.getName());
+		this.pack = pack;
 	}
 
 	@Override
 	public ItemStack getTabIconItem()
 	{
-		return new ItemStack(Items.FLINT_AND_STEEL);
+		if (icon == null)
+		{
+			icon = new ItemStack(Items.FLINT_AND_STEEL);
+			if (pack != null && !pack.getBlocks().isEmpty())
+				icon = new ItemStack(pack.getBlocks().iterator().next());
+		}
+		return icon;
+	}
+
+	@Override
+	@SideOnly(Side.CLIENT)
+	public String getTranslatedTabLabel()
+	{
+		return pack != null ? pack.getName() : super.getTranslatedTabLabel();
+	}
+
+	@Override
+	public boolean hasSearchBar()
+	{
+		return pack == null;
 	}
 
+	@Override
+	@SideOnly(Side.CLIENT)
+	public void displayAllRelevantItems(NonNullList<ItemStack> list)
+	{
+		List<ItemStack> items = getItems();
+		if (pack != null)
+		{
+			for (ItemStack itemStack : items)
+				list.add(itemStack.copy());
+			return;
+		}
+
+		//the results of a query are listed by updateSearch()
+		if (!SearchField.getText(Minecraft.getMinecraft().currentScreen).isEmpty())
+			return;
+
+		for (int i = 0; i < items.size() && i < maxListed; i++)
+			list.add(items.get(i).copy());
+	}
+
+	/**
+	 * Lists the stacks of the main tab matching the search typed in the <i>gui</i>.<br>
+	 * Called after the creative GUI handled a key, so once it cleared its list and filtered the (empty) list of the main tab.
+	 *
+	 * @param gui the gui
+	 */
+	@SideOnly(Side.CLIENT)
+	public static void updateSearch(GuiContainerCreative gui)
+	{
+		if (CreativeTabs.CREATIVE_TAB_ARRAY[gui.getSelectedTabIndex()] != DDB.tab)
+			return;
+		String query = SearchField.getText(gui);
+		if (query.isEmpty())
+			return;
+
+		GuiContainerCreative.ContainerCreative container = (GuiContainerCreative.ContainerCreative) gui.inventorySlots;
+		container.itemList.clear();
+		List<ItemStack> items = DDB.tab.getItems();
+		BitSet matches = DDB.tab.getSearchIndex().search(query);
+		if (matches == null)
+		{
+			//no word in the query, list as without one
+			matches = new BitSet();
+			matches.set(0, items.size());
+		}
+		for (int i = matches.nextSetBit(0), n = 0; i >= 0 && n < maxListed; i = matches.nextSetBit(i + 1), n++)
+			container.itemList.add(items.get(i).copy());
+		container.scrollTo(0.0F);
+	}
+
+	/**
+	 * Gets the item stacks listed in this tab, built on first use.
+	 *
+	 * @return the items
+	 */
+	@SideOnly(Side.CLIENT)
+	private List<ItemStack> getItems()
+	{
+		if (items == null)
+		{
+			Collection<DDBBlock> blocks = pack != null ? pack.getBlocks() : DDB	.getListPacks()
+																				.stream()
+																				.flatMap(p -> p.getBlocks().stream())
+																				.collect(Collectors.toList());
+			NonNullList<ItemStack> list = NonNullList.create();
+			for (DDBBlock block : blocks)
+			{
+				Item item = Item.getItemFromBlock(block);
+				if (item != Items.AIR)
+					item.getSubItems(item, this, list);
+			}
+			items = list;
+		}
+		return items;
+	}
+
+	@SideOnly(Side.CLIENT)
+	private TabSearchIndex getSearchIndex()
+	{
+		if (searchIndex == null)
+			searchIndex = TabSearchIndex.build(getItems());
+		return searchIndex;
+	}
+
+	/**
+	 * Discards the search index of this {@link DDBTab}, so it is built again with the current localized names.<br>
+	 * Called when the language files are reloaded.
+	 */
+	@SideOnly(Side.CLIENT)
+	public void invalidateSearch()
+	{
+		searchIndex = null;
+	}
+
+	/**
+	 * Reads the text typed in the search bar of the creative inventory.
+	 */
+	@SideOnly(Side.CLIENT)
+	private static class SearchField
+	{
+		private final static Field searchField = AsmUtils.changeFieldAccess(GuiContainerCreative.class, "searchField", "field_147062_A");
+
+		private static String getText(GuiScreen screen)
+		{
+			if (searchField == null || !(screen instanceof GuiContainerCreative))
+				return "";
+
+			try
+			{
+				GuiTextField textField = (GuiTextField) searchField.get(screen);
+				return textField != null ? textField.getText() : "";
+			}
+			catch (IllegalAccessException e)
+			{
+				return "";
+			}
+		}
+	}
 }
@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.malisis.ddb.block.DDBBlock;
+
+/**
+ * Estimates the memory footprint of each {@link BlockPack}.<br>
+ * Sizes are approximations for a 64-bit JVM with compressed references : they are meant to compare the packs with one another, not to be
+ * exact. Instances shared between blocks are only counted once.
+ *
+ * @author Ordinastie
+ *
+ */
+public class FootprintReport
+{
+	/** Estimated size of a DDBBlock with its components and block state. */
+	private static final int BLOCK_SIZE = 640;
+	/** Estimated size of an icon provider, without the icons. */
+	private static final int ICON_PROVIDER_SIZE = 96;
+	/** Estimated size of a DDBIcon, without its frame data. */
+	private static final int ICON_SIZE = 160;
+
+	public static class Entry
+	{
+		private final String pack;
+		private int blocks;
+		private long blocksBytes;
+		private long descriptorsBytes;
+		private long iconsBytes;
+		private long framesBytes;
+		private long langBytes;
+		private long atlasPixels;
+
+		private Entry(String pack)
+		{
+			this.pack = pack;
+		}
+
+		public long getTotalBytes()
+		{
+			return blocksBytes + descriptorsBytes + iconsBytes + framesBytes + langBytes;
+		}
+	}
+
+	/**
+	 * Computes the footprint of all the registered {@link BlockPack BlockPacks}, sorted by decreasing total size.
+	 *
+	 * @return the entries
+	 */
+	public static List<Entry> compute()
+	{
+		List<Entry> entries = new ArrayList<>();
+		for (BlockPack pack : DDB.getListPacks())
+			entries.add(compute(pack));
+		entries.sort(Comparator.comparingLong(Entry::getTotalBytes).reversed());
+		return entries;
+	}
+
+	private static Entry compute(BlockPack pack)
+	{
+		Entry entry = new Entry(pack.getName());
+		Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (DDBBlock block : pack.getBlocks())
+		{
+			entry.blocks++;
+			entry.blocksBytes += BLOCK_SIZE + string(block.getName());
+			if (seen.add(block.getDescriptor()))
+				entry.descriptorsBytes += compact(block.getDescriptor());
+			if (block.getBlockDescriptor() != null && seen.add(block.getBlockDescriptor()))
+				entry.descriptorsBytes += descriptor(block.getBlockDescriptor());
+		}
+
+		if (!pack.getIcons().isEmpty())
+			entry.iconsBytes += (long) entry.blocks * ICON_PROVIDER_SIZE;
+		for (DDBIcon icon : pack.getIcons())
+		{
+			entry.iconsBytes += ICON_SIZE;
+			entry.framesBytes += icon.getRetainedBytes();
+			entry.atlasPixels += (long) icon.getIconWidth() * icon.getIconHeight();
+		}
+
+		entry.langBytes = pack.getLangBytes();
+		return entry;
+	}
+
+	private static long string(String str)
+	{
+		return str != null ? 40 + 2 * str.length() : 0;
+	}
+
+	private static long compact(CompactDescriptor data)
+	{
+		long bytes = 48 + string(data.getTexture());
+		for (CompactDescriptor.TextureKey key : CompactDescriptor.TextureKey.values())
+			bytes += 4 + string(data.getTexture(key));
+		return bytes;
+	}
+
+	private static long descriptor(BlockDescriptor desc)
+	{
+		long bytes = 80 + string(desc.name) + string(desc.textureName) + string(desc.material) + string(desc.soundType);
+		bytes += map(desc.textures) + map(desc.megatextures);
+		if (desc.recipes != null)
+		{
+			bytes += 40;
+			for (DDBRecipe recipe : desc.recipes)
+			{
+				bytes += 32;
+				if (recipe.items != null)
+					for (String[] row : recipe.items)
+					{
+						bytes += 16 + 4 * row.length;
+						for (String item : row)
+							bytes += string(item);
+					}
+			}
+		}
+		if (desc.furnaceRecipe != null)
+			bytes += 24 + string(desc.furnaceRecipe.item);
+		return bytes;
+	}
+
+	private static long map(Map<String, String> map)
+	{
+		if (map == null)
+			return 0;
+		long bytes = 64;
+		for (Map.Entry<String, String> e : map.entrySet())
+			bytes += 40 + string(e.getKey()) + string(e.getValue());
+		return bytes;
+	}
+
+	/**
+	 * Formats the <i>entries</i> as a table.
+	 *
+	 * @param entries the entries
+	 * @return the lines
+	 */
+	public static List<String> format(List<Entry> entries)
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("%-24s %7s %10s %10s %10s %10s %10s %10s %10s", "pack", "blocks", "total", "blocks", "descs", "icons",
+				"frames", "lang", "atlas px"));
+		for (Entry e : entries)
+			lines.add(String.format("%-24s %7d %10s %10s %10s %10s %10s %10s %10d", e.pack, e.blocks, size(e.getTotalBytes()),
+					size(e.blocksBytes), size(e.descriptorsBytes), size(e.iconsBytes), size(e.framesBytes), size(e.langBytes),
+					e.atlasPixels));
+		return lines;
+	}
+
+	private static String size(long bytes)
+	{
+		if (bytes < 1024)
+			return bytes + "B";
+		if (bytes < 1024 * 1024)
+			return String.format("%.1fK", bytes / 1024F);
+		return String.format("%.1fM", bytes / (1024F * 1024F));
+	}
+
+	/**
+	 * Logs the footprint table of all the {@link BlockPack BlockPacks}.
+	 */
+	public static void log()
+	{
+		DDB.log.info("DDB packs footprint (estimated) :\n\t{}", String.join("\n\t", format(compute())));
+	}
+}
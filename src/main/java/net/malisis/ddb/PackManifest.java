@@ -0,0 +1,263 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipFile;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import net.malisis.ddb.BlockPack.FolderEntry;
+import net.malisis.ddb.texture.RawTexture;
+
+/**
+ * Hashes of all the files of a {@link BlockPack}, and a fingerprint of the whole pack.<br>
+ * Each file is identified by the CRC32 and size of its content. For ZIP packs, both come straight from the central directory of the
+ * archive. For FOLDER packs, the CRCs are kept in <code>config/ddb/hashes/&lt;pack&gt;.hashes</code> along with the modification time
+ * and size of the files, so only the files changed since the last run are read again.<br>
+ * The generated {@link RawTexture} files are left out, as they are derived from the PNG files.
+ *
+ * @author Ordinastie
+ *
+ */
+public class PackManifest
+{
+	private static final Path hashesDir = Paths.get("config", "ddb", "hashes");
+
+	private final SortedMap<String, Long> entries;
+	private final long fingerprint;
+
+	public PackManifest(SortedMap<String, Long> entries)
+	{
+		this.entries = Collections.unmodifiableSortedMap(entries);
+
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		for (Map.Entry<String, Long> entry : entries.entrySet())
+			hasher.putString(entry.getKey(), StandardCharsets.UTF_8).putLong(entry.getValue());
+		this.fingerprint = hasher.hash().asLong();
+	}
+
+	/**
+	 * Gets the hashes of the files, by path.
+	 *
+	 * @return the entries
+	 */
+	public SortedMap<String, Long> getEntries()
+	{
+		return entries;
+	}
+
+	/**
+	 * Gets the fingerprint of the whole pack.<br>
+	 * Two packs with the same fingerprint have the same files with the same content.
+	 *
+	 * @return the fingerprint
+	 */
+	public long getFingerprint()
+	{
+		return fingerprint;
+	}
+
+	/**
+	 * Lists the files that differ between this manifest and the <i>other</i> one.<br>
+	 * Each path is prefixed with <code>+</code> if only in this manifest, <code>-</code> if only in the other, and <code>~</code> if its
+	 * content differs.
+	 *
+	 * @param other the other entries
+	 * @return the differences
+	 */
+	public List<String> diff(Map<String, Long> other)
+	{
+		List<String> diff = new ArrayList<>();
+		for (Map.Entry<String, Long> entry : entries.entrySet())
+		{
+			Long hash = other.get(entry.getKey());
+			if (hash == null)
+				diff.add("+" + entry.getKey());
+			else if (!hash.equals(entry.getValue()))
+				diff.add("~" + entry.getKey());
+		}
+		for (String path : other.keySet())
+			if (!entries.containsKey(path))
+				diff.add("-" + path);
+		return diff;
+	}
+
+	/**
+	 * Computes the {@link PackManifest} of the <i>pack</i>.<br>
+	 * ZIP packs must still be open.
+	 *
+	 * @param pack the pack
+	 * @return the pack manifest
+	 */
+	public static PackManifest compute(BlockPack pack)
+	{
+		SortedMap<String, Long> entries = new TreeMap<>();
+		if (pack.getType() == BlockPack.Type.ZIP)
+		{
+			ZipFile zipFile = pack.getZipFile();
+			if (zipFile != null)
+				zipFile.stream()
+						.filter(e -> !e.isDirectory() && isIncluded(e.getName()))
+						.forEach(e -> entries.put(e.getName(), hash(e.getCrc(), e.getSize())));
+		}
+		else
+			computeFolder(pack, entries);
+
+		return new PackManifest(entries);
+	}
+
+	private static void computeFolder(BlockPack pack, SortedMap<String, Long> entries)
+	{
+		Path cacheFile = hashesDir.resolve(pack.getName() + ".hashes");
+		Map<String, CachedHash> cache = readCache(cacheFile);
+		Map<String, CachedHash> newCache = new HashMap<>();
+
+		for (FolderEntry file : pack.getFolderEntries())
+		{
+			if (!isIncluded(file.path))
+				continue;
+
+			CachedHash cached = cache.get(file.path);
+			if (cached == null || cached.lastModified != file.lastModified || cached.size != file.size)
+			{
+				try
+				{
+					byte[] data = pack.readBytes(file.path);
+					if (data == null)
+						continue;
+					CRC32 crc = new CRC32();
+					crc.update(data);
+					cached = new CachedHash(file.lastModified, file.size, crc.getValue());
+				}
+				catch (IOException e)
+				{
+					DDB.log.error("Could not hash {} in pack {} : {}", file.path, pack.getName(), e.getMessage());
+					continue;
+				}
+			}
+
+			newCache.put(file.path, cached);
+			entries.put(file.path, hash(cached.crc, file.size));
+		}
+
+		if (!newCache.equals(cache))
+			writeCache(cacheFile, newCache);
+	}
+
+	private static boolean isIncluded(String path)
+	{
+		return !path.endsWith(RawTexture.EXTENSION);
+	}
+
+	private static long hash(long crc, long size)
+	{
+		return (crc & 0xFFFFFFFFL) << 32 | (size & 0xFFFFFFFFL);
+	}
+
+	private static Map<String, CachedHash> readCache(Path file)
+	{
+		Map<String, CachedHash> cache = new HashMap<>();
+		if (!Files.isRegularFile(file))
+			return cache;
+
+		try
+		{
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8))
+			{
+				String[] parts = line.split(" ", 4);
+				if (parts.length == 4)
+					cache.put(parts[3], new CachedHash(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+			}
+		}
+		catch (IOException | NumberFormatException e)
+		{
+			DDB.log.error("Could not read the hash cache {}, the pack will be hashed again : {}", file, e.getMessage());
+			cache.clear();
+		}
+		return cache;
+	}
+
+	private static void writeCache(Path file, Map<String, CachedHash> cache)
+	{
+		List<String> lines = new ArrayList<>(cache.size());
+		for (Map.Entry<String, CachedHash> entry : cache.entrySet())
+		{
+			CachedHash hash = entry.getValue();
+			lines.add(hash.lastModified + " " + hash.size + " " + hash.crc + " " + entry.getKey());
+		}
+
+		try
+		{
+			Files.createDirectories(file.getParent());
+			Files.write(file, lines, StandardCharsets.UTF_8);
+		}
+		catch (IOException e)
+		{
+			DDB.log.error("Could not write the hash cache {} : {}", file, e.getMessage());
+		}
+	}
+
+	private static class CachedHash
+	{
+		private final long lastModified;
+		private final long size;
+		private final long crc;
+
+		private CachedHash(long lastModified, long size, long crc)
+		{
+			this.lastModified = lastModified;
+			this.size = size;
+			this.crc = crc;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof CachedHash))
+				return false;
+			CachedHash other = (CachedHash) obj;
+			return lastModified == other.lastModified && size == other.size && crc == other.crc;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Long.hashCode(lastModified * 31 + size) * 31 + Long.hashCode(crc);
+		}
+	}
+}
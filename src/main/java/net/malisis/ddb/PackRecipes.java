@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.malisis.ddb.block.DDBBlock;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraftforge.fml.common.registry.GameRegistry;
+
+/**
+ * Holds the recipes built for the blocks of a {@link BlockPack}.<br>
+ * Recipes are built with {@link #build(BlockPack)}, which only reads the registries and can run in parallel for all the packs. They are
+ * then handed to the {@link GameRegistry} with {@link #register()}, on the main thread.
+ *
+ * @author Ordinastie
+ *
+ */
+public class PackRecipes
+{
+	private final BlockPack pack;
+	private final List<IRecipe> recipes = new ArrayList<>();
+	private final List<Smelting> smeltings = new ArrayList<>();
+	private final List<String> errors = new ArrayList<>();
+
+	private PackRecipes(BlockPack pack)
+	{
+		this.pack = pack;
+	}
+
+	/**
+	 * Gets the {@link BlockPack} these recipes were built for.
+	 *
+	 * @return the pack
+	 */
+	public BlockPack getPack()
+	{
+		return pack;
+	}
+
+	/**
+	 * Gets the crafting recipes built, in the order of the blocks of the pack.
+	 *
+	 * @return the recipes
+	 */
+	public List<IRecipe> getRecipes()
+	{
+		return recipes;
+	}
+
+	/**
+	 * Gets the errors found while building the recipes.
+	 *
+	 * @return the errors
+	 */
+	public List<String> getErrors()
+	{
+		return errors;
+	}
+
+	/**
+	 * Registers the built recipes into the {@link GameRegistry} and reports the errors found for this {@link BlockPack}.<br>
+	 * Recipes whose grid and output are already in the <i>index</i> are dropped, and recipes whose grid is used for another output are
+	 * reported.<br>
+	 * Must be called from the main thread.
+	 *
+	 * @param index the index of the recipes already registered
+	 */
+	public void register(RecipeIndex index)
+	{
+		int duplicates = 0;
+		for (IRecipe recipe : recipes)
+		{
+			RecipeIndex.Result result = index.add(recipe, pack.getName());
+			if (result == RecipeIndex.Result.DUPLICATE)
+			{
+				duplicates++;
+				continue;
+			}
+			if (result == RecipeIndex.Result.CONFLICT)
+				errors.add("recipe for " + recipe.getRecipeOutput().getItem().getRegistryName() + " conflicts with "
+						+ index.get(recipe).getRecipeOutput().getItem().getRegistryName() + " from " + index.getOwner(recipe));
+
+			GameRegistry.addRecipe(recipe);
+		}
+		if (duplicates > 0)
+			DDB.log.info("Skipped {} duplicate recipe(s) in pack {}", duplicates, pack.getName());
+
+		for (Smelting smelting : smeltings)
+			smelting.recipe.addFurnaceRecipe(smelting.input, smelting.output);
+
+		if (!errors.isEmpty())
+			DDB.log.warn("{} recipe error(s) in pack {} :\n\t{}", errors.size(), pack.getName(), String.join("\n\t", errors));
+	}
+
+	/**
+	 * Builds the recipes for all the blocks of the {@link BlockPack}.<br>
+	 * Nothing is registered here, so this can be called for all packs at once.
+	 *
+	 * @param pack the pack
+	 * @return the pack recipes
+	 */
+	public static PackRecipes build(BlockPack pack)
+	{
+		PackRecipes packRecipes = new PackRecipes(pack);
+		List<PackRecipes> blockRecipes = pack.getBlocks().parallelStream().map(block -> build(pack, block)).collect(Collectors.toList());
+		for (PackRecipes pr : blockRecipes)
+		{
+			packRecipes.recipes.addAll(pr.recipes);
+			packRecipes.smeltings.addAll(pr.smeltings);
+			packRecipes.errors.addAll(pr.errors);
+		}
+		return packRecipes;
+	}
+
+	private static PackRecipes build(BlockPack pack, DDBBlock block)
+	{
+		PackRecipes pr = new PackRecipes(pack);
+		ItemStack output = new ItemStack(block);
+		for (DDBRecipe r : block.getRecipes())
+		{
+			IRecipe recipe = r.createRecipe(output, pr.errors);
+			if (recipe != null)
+				pr.recipes.add(recipe);
+		}
+
+		DDBSmeltingRecipe furnaceRecipe = block.getFurnaceRecipe();
+		if (furnaceRecipe != null)
+		{
+			ItemStack input = furnaceRecipe.getInput();
+			if (input != null)
+				pr.smeltings.add(new Smelting(furnaceRecipe, input, output));
+			else
+				pr.errors.add("unknown furnace input '" + furnaceRecipe.item + "' for " + block.getName());
+		}
+		return pr;
+	}
+
+	private static class Smelting
+	{
+		private final DDBSmeltingRecipe recipe;
+		private final ItemStack input;
+		private final ItemStack output;
+
+		public Smelting(DDBSmeltingRecipe recipe, ItemStack input, ItemStack output)
+		{
+			this.recipe = recipe;
+			this.input = input;
+			this.output = output;
+		}
+	}
+}
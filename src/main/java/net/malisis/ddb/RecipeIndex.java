@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraftforge.oredict.OreDictionary;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+/**
+ * Hash index over the normalized crafting grids of the registered recipes.<br>
+ * Shaped grids are trimmed of their empty rows and columns and folded with their mirror image, shapeless ingredients are sorted, so two
+ * recipes accepting the exact same inputs share the same key.
+ *
+ * @author Ordinastie
+ *
+ */
+public class RecipeIndex
+{
+	public enum Result
+	{
+		/** No other recipe uses that grid. */
+		NEW,
+		/** Another recipe uses that grid for the same output. */
+		DUPLICATE,
+		/** Another recipe uses that grid for a different output. */
+		CONFLICT,
+		/** The recipe type is not supported by the index. */
+		UNKNOWN
+	}
+
+	private final Map<String, Entry> recipes = new HashMap<>();
+	private final Map<Object, String> oreNames = new IdentityHashMap<>();
+
+	public RecipeIndex()
+	{
+		//ore ingredients are stored as the list shared by the OreDictionary, map them back to their names
+		for (String name : OreDictionary.getOreNames())
+			oreNames.put(OreDictionary.getOres(name, false), name);
+	}
+
+	/**
+	 * Creates a {@link RecipeIndex} containing all the recipes already registered in the {@link CraftingManager}.
+	 *
+	 * @return the recipe index
+	 */
+	public static RecipeIndex fromRegistry()
+	{
+		RecipeIndex index = new RecipeIndex();
+		for (IRecipe recipe : CraftingManager.getInstance().getRecipeList())
+			index.add(recipe, "registry");
+		return index;
+	}
+
+	/**
+	 * Adds the <i>recipe</i> to this {@link RecipeIndex}.<br>
+	 * If the grid is already indexed, the recipe is not added and the result tells whether the existing one has the same output.
+	 *
+	 * @param recipe the recipe
+	 * @param owner the owner of the recipe, used for reports
+	 * @return the result
+	 */
+	public Result add(IRecipe recipe, String owner)
+	{
+		String key = getKey(recipe);
+		if (key == null)
+			return Result.UNKNOWN;
+
+		Entry entry = recipes.get(key);
+		if (entry == null)
+		{
+			recipes.put(key, new Entry(recipe, owner));
+			return Result.NEW;
+		}
+
+		return getOutputKey(entry.recipe).equals(getOutputKey(recipe)) ? Result.DUPLICATE : Result.CONFLICT;
+	}
+
+	/**
+	 * Gets the recipe already indexed with the same grid as <i>recipe</i>.
+	 *
+	 * @param recipe the recipe
+	 * @return the indexed recipe, <code>null</code> if none
+	 */
+	public IRecipe get(IRecipe recipe)
+	{
+		String key = getKey(recipe);
+		Entry entry = key != null ? recipes.get(key) : null;
+		return entry != null ? entry.recipe : null;
+	}
+
+	/**
+	 * Gets the owner of the recipe already indexed with the same grid as <i>recipe</i>.
+	 *
+	 * @param recipe the recipe
+	 * @return the owner, <code>null</code> if none
+	 */
+	public String getOwner(IRecipe recipe)
+	{
+		String key = getKey(recipe);
+		Entry entry = key != null ? recipes.get(key) : null;
+		return entry != null ? entry.owner : null;
+	}
+
+	/**
+	 * Gets the normalized key for the grid of the <i>recipe</i>.
+	 *
+	 * @param recipe the recipe
+	 * @return the key, <code>null</code> if the recipe type is not supported
+	 */
+	public String getKey(IRecipe recipe)
+	{
+		if (recipe instanceof ShapedOreRecipe)
+		{
+			ShapedOreRecipe r = (ShapedOreRecipe) recipe;
+			return getShapedKey(r.getInput(), r.getWidth(), r.getHeight());
+		}
+		if (recipe instanceof ShapedRecipes)
+		{
+			ShapedRecipes r = (ShapedRecipes) recipe;
+			return getShapedKey(r.recipeItems, r.recipeWidth, r.recipeHeight);
+		}
+		if (recipe instanceof ShapelessOreRecipe)
+			return getShapelessKey(((ShapelessOreRecipe) recipe).getInput());
+		if (recipe instanceof ShapelessRecipes)
+			return getShapelessKey(((ShapelessRecipes) recipe).recipeItems);
+
+		return null;
+	}
+
+	private String getShapedKey(Object[] input, int width, int height)
+	{
+		String[] keys = new String[input.length];
+		for (int i = 0; i < input.length; i++)
+			keys[i] = getIngredientKey(input[i]);
+
+		//trim the empty borders
+		int minX = width, maxX = -1, minY = height, maxY = -1;
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				if (keys[x + y * width] != null)
+				{
+					minX = Math.min(minX, x);
+					maxX = Math.max(maxX, x);
+					minY = Math.min(minY, y);
+					maxY = Math.max(maxY, y);
+				}
+
+		if (maxX == -1)
+			return "shaped:";
+
+		StringBuilder sb = new StringBuilder("shaped:");
+		StringBuilder mirror = new StringBuilder("shaped:");
+		for (int y = minY; y <= maxY; y++)
+		{
+			for (int x = minX; x <= maxX; x++)
+			{
+				sb.append(keys[x + y * width]).append(',');
+				mirror.append(keys[maxX - x + minX + y * width]).append(',');
+			}
+			sb.append('/');
+			mirror.append('/');
+		}
+
+		String key = sb.toString();
+		String mirrorKey = mirror.toString();
+		return key.compareTo(mirrorKey) <= 0 ? key : mirrorKey;
+	}
+
+	private String getShapelessKey(List<?> input)
+	{
+		List<String> keys = new ArrayList<>(input.size());
+		for (Object o : input)
+		{
+			String key = getIngredientKey(o);
+			if (key != null)
+				keys.add(key);
+		}
+		Collections.sort(keys);
+		return "shapeless:" + String.join(",", keys);
+	}
+
+	private String getOutputKey(IRecipe recipe)
+	{
+		ItemStack output = recipe.getRecipeOutput();
+		return getIngredientKey(output) + "x" + output.getCount();
+	}
+
+	private String getIngredientKey(Object ingredient)
+	{
+		if (ingredient instanceof ItemStack)
+		{
+			ItemStack itemStack = (ItemStack) ingredient;
+			if (itemStack.isEmpty())
+				return null;
+			int meta = itemStack.getItemDamage();
+			return itemStack.getItem().getRegistryName() + "@" + (meta == OreDictionary.WILDCARD_VALUE ? "*" : meta);
+		}
+		if (ingredient instanceof String)
+			return "ore:" + ingredient;
+		if (ingredient instanceof List)
+		{
+			String name = oreNames.get(ingredient);
+			if (name != null)
+				return "ore:" + name;
+
+			List<?> list = (List<?>) ingredient;
+			String[] keys = new String[list.size()];
+			for (int i = 0; i < keys.length; i++)
+				keys[i] = getIngredientKey(list.get(i));
+			Arrays.sort(keys, (a, b) -> String.valueOf(a).compareTo(String.valueOf(b)));
+			return Arrays.toString(keys);
+		}
+
+		return null;
+	}
+
+	private static class Entry
+	{
+		private final IRecipe recipe;
+		private final String owner;
+
+		public Entry(IRecipe recipe, String owner)
+		{
+			this.recipe = recipe;
+			this.owner = owner;
+		}
+	}
+}
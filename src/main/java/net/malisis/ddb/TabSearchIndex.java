@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Token index over the item stacks of a {@link DDBTab}.<br>
+ * Block names and localized names are split into lower case tokens, kept sorted so a search word matches all the tokens it prefixes with a
+ * binary search instead of going through the tooltips of every stack. The words of a query can come in any order, but only match the
+ * start of the tokens, unlike the substring match of the vanilla search on the whole tooltip.
+ *
+ * @author Ordinastie
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class TabSearchIndex
+{
+	private static final Pattern separator = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	/** Sorted tokens. */
+	private final String[] tokens;
+	/** Indexes of the stacks containing each token. */
+	private final BitSet[] stacks;
+
+	private TabSearchIndex(String[] tokens, BitSet[] stacks)
+	{
+		this.tokens = tokens;
+		this.stacks = stacks;
+	}
+
+	/**
+	 * Searches the stacks matching the <i>query</i>.<br>
+	 * Each word of the query must prefix a token of the stack.
+	 *
+	 * @param query the query
+	 * @return the indexes of the matching stacks, <code>null</code> if the query is empty
+	 */
+	public BitSet search(String query)
+	{
+		BitSet result = null;
+		for (String word : tokenize(query))
+		{
+			BitSet matches = new BitSet();
+			int index = Arrays.binarySearch(tokens, word);
+			if (index < 0)
+				index = -index - 1;
+			for (; index < tokens.length && tokens[index].startsWith(word); index++)
+				matches.or(stacks[index]);
+
+			if (result == null)
+				result = matches;
+			else
+				result.and(matches);
+
+			if (result.isEmpty())
+				break;
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the {@link TabSearchIndex} for the <i>itemStacks</i>, using their block name and current localized name.
+	 *
+	 * @param itemStacks the item stacks
+	 * @return the tab search index
+	 */
+	public static TabSearchIndex build(List<ItemStack> itemStacks)
+	{
+		Map<String, BitSet> index = new TreeMap<>();
+		for (int i = 0; i < itemStacks.size(); i++)
+		{
+			ItemStack itemStack = itemStacks.get(i);
+			Block block = Block.getBlockFromItem(itemStack.getItem());
+			List<String> words = tokenize(itemStack.getDisplayName());
+			if (block.getRegistryName() != null)
+				words.addAll(tokenize(block.getRegistryName().getResourcePath()));
+
+			for (String word : words)
+				index.computeIfAbsent(word, w -> new BitSet()).set(i);
+		}
+
+		return new TabSearchIndex(index.keySet().toArray(new String[0]), index.values().toArray(new BitSet[0]));
+	}
+
+	private static List<String> tokenize(String str)
+	{
+		List<String> words = new ArrayList<>();
+		for (String word : separator.split(str.toLowerCase(Locale.ROOT)))
+			if (!word.isEmpty())
+				words.add(word);
+		return words;
+	}
+}
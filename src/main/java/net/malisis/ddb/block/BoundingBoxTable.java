@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.block;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.malisis.core.block.BoundingBoxType;
+import net.malisis.ddb.BlockType;
+import net.malisis.ddb.DDB;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Table of the collision, selection and ray trace boxes of a {@link DDBBlock}, for each of its states.<br>
+ * Shapes that only depend on the state (slopes, corners, slabs, full blocks) are computed once when the block is registered. Shapes that
+ * depend on the neighbors (stairs, walls, panes) are keyed by the actual state and computed the first time that state is queried.<br>
+ * Lookups are an identity map read for the state index and an array read. The slots filled on first query are published through an
+ * {@link AtomicReferenceArray}, as the client and integrated server threads both query them. The boxes are immutable and shared, but the
+ * array holding them is copied : MalisisCore offsets the boxes in place in the array it gets.
+ *
+ * @author Ordinastie
+ *
+ */
+public final class BoundingBoxTable
+{
+	private static final BoundingBoxType[] cachedTypes = { BoundingBoxType.COLLISION, BoundingBoxType.SELECTION, BoundingBoxType.RAYTRACE };
+
+	private final DDBBlock block;
+	private final IBlockState[] states;
+	private final Map<IBlockState, Integer> stateIndexes;
+	private final boolean actualState;
+	private final AtomicReferenceArray<AxisAlignedBB[]> boxes;
+
+	public BoundingBoxTable(DDBBlock block)
+	{
+		this.block = block;
+		this.states = block.getBlockState().getValidStates().toArray(new IBlockState[0]);
+		this.stateIndexes = new IdentityHashMap<>(states.length);
+		for (int i = 0; i < states.length; i++)
+			stateIndexes.put(states[i], i);
+		BlockType type = block.getBlockType();
+		this.actualState = type == BlockType.STAIRS || type == BlockType.WALL || type == BlockType.PANE;
+		this.boxes = new AtomicReferenceArray<>(states.length * cachedTypes.length);
+	}
+
+	/**
+	 * Computes the boxes of all the states whose shape does not depend on the neighbors.<br>
+	 * Called once the block is registered and its states are known.
+	 *
+	 * @param compute the function computing the boxes of a state
+	 */
+	public void prefill(ComputeFunction compute)
+	{
+		if (actualState)
+			return;
+
+		int failed = 0;
+		RuntimeException error = null;
+		for (int i = 0; i < states.length; i++)
+		{
+			for (int t = 0; t < cachedTypes.length; t++)
+			{
+				try
+				{
+					boxes.set(i * cachedTypes.length + t, compute.apply(EmptyBlockAccess.instance, BlockPos.ORIGIN, states[i], cachedTypes[t]));
+				}
+				catch (RuntimeException e)
+				{
+					//the shape needs a real world after all, computed on first query instead
+					failed++;
+					error = e;
+				}
+			}
+		}
+
+		if (failed > 0)
+			DDB.log.warn("Could not precompute {} bounding box(es) of {}, they will be computed on first query : {}", failed, block.getName(),
+					error.toString());
+	}
+
+	/**
+	 * Gets the boxes for the <i>state</i> at the <i>pos</i>.
+	 *
+	 * @param world the world
+	 * @param pos the pos
+	 * @param state the state
+	 * @param type the type
+	 * @param compute the function computing the boxes when they are not in the table
+	 * @return the boxes
+	 */
+	public AxisAlignedBB[] get(IBlockAccess world, BlockPos pos, IBlockState state, BoundingBoxType type, ComputeFunction compute)
+	{
+		int t = typeIndex(type);
+		if (t == -1)
+			return compute.apply(world, pos, state, type);
+
+		IBlockState key = actualState ? state.getActualState(world, pos) : state;
+		Integer index = stateIndexes.get(key);
+		if (index == null)
+			return compute.apply(world, pos, state, type);
+
+		int slot = index * cachedTypes.length + t;
+		AxisAlignedBB[] aabbs = boxes.get(slot);
+		if (aabbs == null)
+		{
+			//computing twice on a race is harmless, both threads get the same shape
+			aabbs = compute.apply(world, pos, state, type);
+			boxes.set(slot, aabbs);
+		}
+		return aabbs.clone();
+	}
+
+	private static int typeIndex(BoundingBoxType type)
+	{
+		for (int i = 0; i < cachedTypes.length; i++)
+			if (cachedTypes[i] == type)
+				return i;
+		return -1;
+	}
+
+	@FunctionalInterface
+	public interface ComputeFunction
+	{
+		public AxisAlignedBB[] apply(IBlockAccess world, BlockPos pos, IBlockState state, BoundingBoxType type);
+	}
+
+	/**
+	 * Air everywhere, used to compute the shapes that do not depend on the neighbors.
+	 */
+	private static class EmptyBlockAccess implements IBlockAccess
+	{
+		private static final EmptyBlockAccess instance = new EmptyBlockAccess();
+
+		@Override
+		public TileEntity getTileEntity(BlockPos pos)
+		{
+			return null;
+		}
+
+		@Override
+		@SideOnly(Side.CLIENT)
+		public int getCombinedLight(BlockPos pos, int lightValue)
+		{
+			return 0;
+		}
+
+		@Override
+		public IBlockState getBlockState(BlockPos pos)
+		{
+			return Blocks.AIR.getDefaultState();
+		}
+
+		@Override
+		public boolean isAirBlock(BlockPos pos)
+		{
+			return true;
+		}
+
+		@Override
+		@SideOnly(Side.CLIENT)
+		public Biome getBiome(BlockPos pos)
+		{
+			return null;
+		}
+
+		@Override
+		public int getStrongPower(BlockPos pos, EnumFacing direction)
+		{
+			return 0;
+		}
+
+		@Override
+		@SideOnly(Side.CLIENT)
+		public WorldType getWorldType()
+		{
+			return WorldType.DEFAULT;
+		}
+
+		@Override
+		public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default)
+		{
+			return _default;
+		}
+	}
+}
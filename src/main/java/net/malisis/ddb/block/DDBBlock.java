@@ -24,6 +24,8 @@
 
 package net.malisis.ddb.block;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
@@ -31,6 +33,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.google.common.base.Predicates;
 
 import net.malisis.core.MalisisCore;
+import net.malisis.core.block.BoundingBoxType;
 import net.malisis.core.block.MalisisBlock;
 import net.malisis.core.block.component.ColorComponent;
 import net.malisis.core.block.component.CornerComponent;
@@ -48,18 +51,21 @@ import net.malisis.core.renderer.icon.provider.PropertyEnumIconProvider;
 import net.malisis.ddb.BlockDescriptor;
 import net.malisis.ddb.BlockPack;
 import net.malisis.ddb.BlockType;
+import net.malisis.ddb.CompactDescriptor;
+import net.malisis.ddb.CompactDescriptor.TextureKey;
 import net.malisis.ddb.DDB;
 import net.malisis.ddb.DDBIcon;
+import net.malisis.ddb.DDBMetrics;
 import net.malisis.ddb.DDBRecipe;
+import net.malisis.ddb.DDBSmeltingRecipe;
 import net.minecraft.block.BlockColored;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.item.EnumDyeColor;
-import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
-import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -70,24 +76,29 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 public class DDBBlock extends MalisisBlock
 {
 	protected BlockPack pack;
+	/** Full descriptor, only kept until the recipes are registered. */
 	protected BlockDescriptor descriptor;
+	protected CompactDescriptor data;
+	/** Bounding boxes per state, built once the block is registered. */
+	protected BoundingBoxTable boundingBoxes;
 
 	public DDBBlock(BlockPack pack, BlockDescriptor descriptor)
 	{
 		super(descriptor.getMaterial());
 		this.pack = pack;
 		this.descriptor = descriptor;
-		this.fullBlock = descriptor.opaque && !descriptor.translucent;
+		this.data = descriptor.compact();
+		this.fullBlock = data.isOpaque() && !data.isTranslucent();
 		this.lightOpacity = fullBlock ? 255 : 0;
-		this.lightValue = Math.max(0, Math.min(15, descriptor.lightValue));
+		this.lightValue = data.getLightValue();
 
-		setName(pack.getName() + "_" + descriptor.name);
+		setName((pack.getName() + "_" + data.getName()).intern());
 		setHardness(descriptor.hardness);
 		setSoundType(descriptor.getSoundType());
 
-		setCreativeTab(DDB.tab);
+		setCreativeTab(pack.getTab());
 
-		switch (descriptor.type)
+		switch (data.getType())
 		{
 			case DIRECTIONAL:
 				addComponent(new DirectionalComponent());
@@ -96,7 +107,7 @@ public class DDBBlock extends MalisisBlock
 				addComponent(new StairComponent());
 				break;
 			case COLORED:
-				addComponent(new ColorComponent(descriptor.useColorMultiplier));
+				addComponent(new ColorComponent(data.useColorMultiplier()));
 				break;
 			case WALL:
 				addComponent(new WallComponent());
@@ -129,85 +140,126 @@ public class DDBBlock extends MalisisBlock
 
 	public BlockType getBlockType()
 	{
-		return descriptor.type;
+		return data.getType();
+	}
+
+	public BlockPack getPack()
+	{
+		return pack;
+	}
+
+	public CompactDescriptor getDescriptor()
+	{
+		return data;
+	}
+
+	/**
+	 * Gets the full {@link BlockDescriptor} of this {@link DDBBlock}.
+	 *
+	 * @return the descriptor, <code>null</code> once released
+	 */
+	public BlockDescriptor getBlockDescriptor()
+	{
+		return descriptor;
 	}
 
 	@SideOnly(Side.CLIENT)
 	public IIconProvider createIconProvider()
 	{
+		//blocks expanded from the same family share their icons
+		String iconName = pack.getName() + "_" + data.getIconName();
 		Icon defaultIcon = null;
 
-		if (descriptor.type == BlockType.MEGATEXTURE)
+		if (data.getType() == BlockType.MEGATEXTURE)
 		{
-			defaultIcon = DDBIcon.getIcon(getName(), pack, descriptor.getTexture());
+			defaultIcon = DDBIcon.getIcon(iconName, pack, data.getTexture());
 			MegaTextureIconProvider iconProvider = new MegaTextureIconProvider(defaultIcon);
 			for (EnumFacing facing : EnumFacing.VALUES)
-				iconProvider.setMegaTexture(facing, defaultIcon, descriptor.numBlocks);
+				iconProvider.setMegaTexture(facing, defaultIcon, data.getNumBlocks());
 
 			return iconProvider;
 		}
-		else if (descriptor.type == BlockType.CONNECTED)
+		else if (data.getType() == BlockType.CONNECTED)
 		{
-			Icon part1 = DDBIcon.getIcon(getName(), pack, descriptor.getTexture());
-			Icon part2 = DDBIcon.getIcon(getName() + "2", pack, descriptor.getTexture() + "2");
+			Icon part1 = DDBIcon.getIcon(iconName, pack, data.getTexture());
+			Icon part2 = DDBIcon.getIcon(iconName + "2", pack, data.getTexture() + "2");
 
 			return IIconProvider.create(part1).connectedWith(part2).build();
 		}
-		else if (descriptor.type == BlockType.COLORED && !descriptor.useColorMultiplier)
+		else if (data.getType() == BlockType.COLORED && !data.useColorMultiplier())
 		{
-			//DDBIcon defaultIcon = new DDBIcon(name, pack, descriptor.getTexture());
+			//DDBIcon defaultIcon = new DDBIcon(name, pack, data.getTexture());
 			PropertyEnumIconProvider<EnumDyeColor> iconProvider = new PropertyEnumIconProvider<>(BlockColored.COLOR, EnumDyeColor.class);
 			for (EnumDyeColor color : EnumDyeColor.values())
 			{
-				String name = getName() + "_" + color.getUnlocalizedName();
-				Icon icon = DDBIcon.getIcon(name, pack, descriptor.getTexture() + "_" + color.getUnlocalizedName());
+				String name = iconName + "_" + color.getUnlocalizedName();
+				Icon icon = DDBIcon.getIcon(name, pack, data.getTexture() + "_" + color.getUnlocalizedName());
 				iconProvider.setIcon(color, icon);
 			}
 
 			return iconProvider;
 		}
-		else if (descriptor.type == BlockType.WALL)
+		else if (data.getType() == BlockType.WALL)
 		{
-			String insideName = descriptor.getTexture("inside");
-			String outsideName = descriptor.getTexture("outside");
+			String insideName = data.getTexture(TextureKey.INSIDE);
+			String outsideName = data.getTexture(TextureKey.OUTSIDE);
 
 			if (!StringUtils.isEmpty(insideName) && !StringUtils.isEmpty(outsideName))
 			{
-				Icon inside = DDBIcon.getIcon(getName() + "_inside", pack, insideName);
-				Icon outside = DDBIcon.getIcon(getName() + "_outside", pack, outsideName);
+				Icon inside = DDBIcon.getIcon(iconName + "_inside", pack, insideName);
+				Icon outside = DDBIcon.getIcon(iconName + "_outside", pack, outsideName);
 
 				return IIconProvider.create(outside).wall(inside).build();
 			}
 			else
 			{
 				if (!StringUtils.isEmpty(insideName))
-					defaultIcon = DDBIcon.getIcon(getName(), pack, insideName);
+					defaultIcon = DDBIcon.getIcon(iconName, pack, insideName);
 				else if (!StringUtils.isEmpty(outsideName))
-					defaultIcon = DDBIcon.getIcon(getName(), pack, outsideName);
+					defaultIcon = DDBIcon.getIcon(iconName, pack, outsideName);
 			}
 		}
 
 		String defaultName = Stream	.of(EnumFacing.VALUES)
-									.map(descriptor::getTexture)
+									.map(data::getTexture)
 									.filter(Predicates.not(StringUtils::isEmpty)::apply)
 									.findFirst()
 									.orElse(null);
 
 		if (defaultName == null)
-			return IIconProvider.create(DDBIcon.getIcon(name, pack, descriptor.getTexture())).build();
+			return IIconProvider.create(DDBIcon.getIcon(iconName, pack, data.getTexture())).build();
 
 		IconProviderBuilder builder = IIconProvider.create(DDBIcon.getIcon(defaultName, pack, defaultName));
 
 		for (EnumFacing side : EnumFacing.VALUES)
 		{
-			String textureName = descriptor.getTexture(side);
+			String textureName = data.getTexture(side);
 			if (textureName != null)
-				builder.withSide(side, DDBIcon.getIcon(name + "_" + side.toString(), pack, textureName));
+				builder.withSide(side, DDBIcon.getIcon(iconName + "_" + side.toString(), pack, textureName));
 		}
 
 		return builder.build();
 	}
 
+	/**
+	 * Builds the {@link BoundingBoxTable} of this {@link DDBBlock}.<br>
+	 * Must be called once the block is registered, so all the components have added their properties.
+	 */
+	public void buildBoundingBoxes()
+	{
+		BoundingBoxTable table = new BoundingBoxTable(this);
+		table.prefill(super::getBoundingBoxes);
+		boundingBoxes = table;
+	}
+
+	@Override
+	public AxisAlignedBB[] getBoundingBoxes(IBlockAccess world, BlockPos pos, IBlockState state, BoundingBoxType type)
+	{
+		if (boundingBoxes == null)
+			return super.getBoundingBoxes(world, pos, state, type);
+		return boundingBoxes.get(world, pos, state, type, super::getBoundingBoxes);
+	}
+
 	@Override
 	public boolean isOpaqueCube(IBlockState state)
 	{
@@ -220,13 +272,20 @@ public class DDBBlock extends MalisisBlock
 	@Override
 	public boolean canRenderInLayer(IBlockState state, BlockRenderLayer layer)
 	{
-		if (descriptor.translucent)
+		if (data.isTranslucent())
 			return layer == BlockRenderLayer.TRANSLUCENT;
 		return layer == BlockRenderLayer.CUTOUT_MIPPED;
 	}
 
 	@Override
 	public boolean shouldSideBeRendered(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing side)
+	{
+		boolean rendered = shouldSideBeRendered0(state, world, pos, side);
+		DDBMetrics.sideRendered(data.getType(), rendered);
+		return rendered;
+	}
+
+	private boolean shouldSideBeRendered0(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing side)
 	{
 		//Called for CONNECTED
 		if (!isOpaqueCube(state))
@@ -241,16 +300,22 @@ public class DDBBlock extends MalisisBlock
 	//		return descriptor.type != BlockType.CONNECTED;
 	//	}
 
-	public void registerRecipes()
+	public List<DDBRecipe> getRecipes()
 	{
-		for (DDBRecipe r : descriptor.recipes)
-		{
-			IRecipe recipe = r.createRecipe(this);
-			if (recipe != null)
-				GameRegistry.addRecipe(recipe);
-		}
+		return descriptor != null && descriptor.recipes != null ? descriptor.recipes : Collections.emptyList();
+	}
+
+	public DDBSmeltingRecipe getFurnaceRecipe()
+	{
+		return descriptor != null ? descriptor.furnaceRecipe : null;
+	}
 
-		if (descriptor.furnaceRecipe != null)
-			descriptor.furnaceRecipe.addFurnaceRecipe(this);
+	/**
+	 * Releases the full {@link BlockDescriptor} of this {@link DDBBlock}, along with its recipe data.<br>
+	 * Called once the recipes are registered, only the {@link CompactDescriptor} is kept afterwards.
+	 */
+	public void releaseDescriptor()
+	{
+		descriptor = null;
 	}
 }
@@ -24,29 +24,34 @@
 
 package net.malisis.ddb.json;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.lang.reflect.Type;
-import java.util.Map.Entry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.zip.ZipFile;
 
+import net.malisis.core.MalisisCore;
 import net.malisis.ddb.BlockDescriptor;
 import net.malisis.ddb.BlockPack;
 import net.malisis.ddb.BlockType;
 import net.malisis.ddb.DDB;
+import net.malisis.ddb.DDBSettings;
+import net.malisis.ddb.PackManifest;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.common.collect.ImmutableSet;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * @author Ordinastie
@@ -54,7 +59,55 @@ import com.google.gson.stream.JsonReader;
  */
 public class BlockPackJsonReader
 {
+	/** Descriptor fields only used to build the textures, skipped when client assets are not needed. */
+	private static final Set<String> clientFields = ImmutableSet.of("textures", "megatextures", "textureName");
+
+	/** Reserved key of the pack file holding the templates. */
+	public static final String TEMPLATES = "templates";
+	/** Descriptor field naming the template to extend. */
+	public static final String EXTENDS = "extends";
+
+	/** Directory of the pack holding additional definition files. */
+	public static final String BLOCKS_DIR = "blocks";
+
+
+	/**
+	 * Reads the {@link BlockPack} and its {@link BlockDescriptor BlockDescriptors} from the <i>file</i>.<br>
+	 * The blocks are not created here, see {@link BlockPack#createBlocks()}, so this can be called from any thread.<br>
+	 * On a dedicated server, only the fields needed by the server are read and the archive is closed right away.
+	 *
+	 * @param file the file
+	 * @return the block pack
+	 */
 	public static BlockPack readPack(File file)
+	{
+		return readPack(file, MalisisCore.isClient());
+	}
+
+	/**
+	 * Reads the {@link BlockPack} from the <i>file</i>.
+	 *
+	 * @param file the file
+	 * @param clientAssets whether the texture data should be read and the pack kept open for the textures and lang files
+	 * @return the block pack
+	 */
+	public static BlockPack readPack(File file, boolean clientAssets)
+	{
+		return readPack(file, clientAssets, DDB.settings);
+	}
+
+	/**
+	 * Reads the {@link BlockPack} from the <i>file</i>, keeping only the packs and blocks allowed by the <i>settings</i>.<br>
+	 * A denied pack is not opened at all, and the denied blocks are dropped before being deserialized whenever possible.
+	 * The descriptors come from <code>&lt;pack&gt;.json</code> and from the files of the {@value #BLOCKS_DIR} directory, either of which
+	 * can be absent.
+	 *
+	 * @param file the file
+	 * @param clientAssets whether the texture data should be read and the pack kept open for the textures and lang files
+	 * @param settings the settings
+	 * @return the block pack, or <b>null</b> if it couldn't be read or is denied
+	 */
+	public static BlockPack readPack(File file, boolean clientAssets, DDBSettings settings)
 	{
 		BlockPack.Type type;
 		String name;
@@ -64,11 +117,21 @@ public class BlockPackJsonReader
 		{
 			name = file.getName();
 			type = BlockPack.Type.FOLDER;
+			if (!settings.isPackAllowed(name))
+			{
+				DDB.log.info("Skipping {}, denied by {}.", file.getName(), DDBSettings.FILE);
+				return null;
+			}
 		}
 		else if (file.getName().endsWith(".zip"))
 		{
 			name = file.getName().substring(0, file.getName().length() - 4);
 			type = BlockPack.Type.ZIP;
+			if (!settings.isPackAllowed(name))
+			{
+				DDB.log.info("Skipping {}, denied by {}.", file.getName(), DDBSettings.FILE);
+				return null;
+			}
 			try
 			{
 				zipFile = new ZipFile(file);
@@ -86,64 +149,343 @@ public class BlockPackJsonReader
 
 		BlockPack pack = new BlockPack(type, name, zipFile);
 
-		InputStream inputStream;
+		byte[] json;
 		try
 		{
-			inputStream = pack.getInputStream(name + ".json");
+			json = pack.readBytes(name + ".json");
 		}
 		catch (IOException e)
 		{
 			DDB.log.error("Skipping {}, couldn't read {}.json : {}", file.getName(), name, e.getMessage());
+			pack.close();
 			return null;
 		}
 
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(BlockPack.class, new BlockPackDeserializer(pack));
-		//gsonBuilder.registerTypeAdapter(DDBRecipe.class, new DDBRecipe.DDBRecipeDeserializer());
-		Gson gson = gsonBuilder.create();
-
-		try (Reader reader = new InputStreamReader(inputStream, "UTF-8"))
+		List<String> blockFiles = pack.listFiles(BLOCKS_DIR, ".json");
+		if (json == null && blockFiles.isEmpty())
 		{
-			JsonReader jsonReader = new JsonReader(reader);
-			jsonReader.setLenient(true);
-			gson.fromJson(jsonReader, BlockPack.class);
+			DDB.log.error("Skipping {}, neither {}.json nor {}/*.json found.", file.getName(), name, BLOCKS_DIR);
+			pack.close();
+			return null;
 		}
-		catch (IOException | JsonSyntaxException e)
+
+		Map<String, Definition> templates = new HashMap<>();
+		List<BlockDescriptor> descriptors = new ArrayList<>();
+		if (json != null)
 		{
-			DDB.log.error("Failed to read {}.json : {}", name, e.getMessage());
-			return null;
+			try
+			{
+				descriptors.addAll(readDescriptors(json, clientAssets, name, settings, templates));
+			}
+			catch (IOException | JsonParseException | IllegalStateException e)
+			{
+				DDB.log.error("Failed to read {}.json : {}", name, e.getMessage());
+				pack.close();
+				return null;
+			}
 		}
 
+		if (!blockFiles.isEmpty())
+			descriptors.addAll(readBlockFiles(pack, blockFiles, clientAssets, settings, templates));
+		pack.setDescriptors(removeDuplicates(name, descriptors));
+
+		pack.setManifest(PackManifest.compute(pack));
+
+		//the server never reads textures nor lang files
+		if (!clientAssets)
+			pack.close();
+
 		return pack;
 	}
 
-	public static class BlockPackDeserializer implements JsonDeserializer<BlockPack>
+	/**
+	 * Reads the definition files of the {@value #BLOCKS_DIR} directory of the <i>pack</i>, in parallel.<br>
+	 * Each file can extend the templates of the main pack file, its own templates are only visible inside it. A file that fails to parse is
+	 * skipped on its own.<br>
+	 * The files are parsed on every start : splitting a pack spreads its parsing over the cores and isolates the errors, but nothing is
+	 * cached between runs.
+	 *
+	 * @param pack the pack
+	 * @param files the paths of the definition files
+	 * @param clientAssets whether to read the texture fields
+	 * @param settings the settings
+	 * @param templates the templates of the main pack file
+	 * @return the descriptors, in the order of the files
+	 */
+	private static List<BlockDescriptor> readBlockFiles(BlockPack pack, List<String> files, boolean clientAssets, DDBSettings settings, Map<String, Definition> templates)
+	{
+		return files.parallelStream().map(path -> {
+			try
+			{
+				byte[] json = pack.readBytes(path);
+				if (json == null)
+					return Collections.<BlockDescriptor> emptyList();
+				return readDescriptors(json, clientAssets, pack.getName(), settings, new HashMap<>(templates));
+			}
+			catch (IOException | JsonParseException | IllegalStateException e)
+			{
+				DDB.log.error("Failed to read {} in pack {} : {}", path, pack.getName(), e.getMessage());
+				return Collections.<BlockDescriptor> emptyList();
+			}
+		}).flatMap(List::stream).collect(Collectors.toList());
+	}
+
+	/**
+	 * Removes the descriptors whose name was already declared, keeping the first one.<br>
+	 * The main pack file comes first, then the {@value #BLOCKS_DIR} files in the order of their names.
+	 *
+	 * @param packName the pack name
+	 * @param descriptors the descriptors
+	 * @return the descriptors without duplicates
+	 */
+	private static List<BlockDescriptor> removeDuplicates(String packName, List<BlockDescriptor> descriptors)
 	{
-		private BlockPack pack;
+		Set<String> names = new HashSet<>();
+		List<BlockDescriptor> list = new ArrayList<>(descriptors.size());
+		for (BlockDescriptor desc : descriptors)
+		{
+			if (names.add(desc.name))
+				list.add(desc);
+			else
+				DDB.log.error("Block {} is declared more than once in pack {}, only the first one is kept.", desc.name, packName);
+		}
+		return list;
+	}
 
-		public BlockPackDeserializer(BlockPack pack)
+	private static List<BlockDescriptor> readDescriptors(byte[] json, boolean clientAssets, String packName, DDBSettings settings, Map<String, Definition> templates) throws IOException
+	{
+		try (Reader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8))
 		{
-			this.pack = pack;
+			JsonReader jsonReader = new JsonReader(reader);
+			jsonReader.setLenient(true);
+			return readDescriptors(jsonReader, clientAssets, packName, settings, templates);
 		}
+	}
+
+	/**
+	 * Reads the {@link BlockDescriptor BlockDescriptors} from the <i>reader</i>.<br>
+	 * Each descriptor is streamed member by member, every value being read once into its field without an intermediate JSON tree. The
+	 * fields only needed for the client are skipped without being materialized when <i>clientAssets</i> is <code>false</code>.<br>
+	 * The {@value #TEMPLATES} object holds named templates. A descriptor (or another template) can use <code>"extends"</code> to inherit all
+	 * the fields of a template declared before it, except the recipes. Inherited values are shared with the template rather than copied,
+	 * and a field set by the descriptor replaces the inherited one as a whole.<br>
+	 * A descriptor with a <code>"family"</code> is expanded into one descriptor per listed {@link BlockType}, see
+	 * {@link BlockDescriptor#expandFamily()}.
+	 *
+	 * @param reader the reader
+	 * @param clientAssets whether to read the texture fields
+	 * @return the descriptors, in the order they are declared
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static List<BlockDescriptor> readDescriptors(JsonReader reader, boolean clientAssets) throws IOException
+	{
+		return readDescriptors(reader, clientAssets, null, DDBSettings.ALL);
+	}
+
+	/**
+	 * Reads the {@link BlockDescriptor BlockDescriptors} allowed by the <i>settings</i> from the <i>reader</i>.<br>
+	 * A definition is skipped without being parsed when its name and the names of all its possible family members are denied. A definition
+	 * whose type is denied is dropped as soon as it is read, before it is expanded. The members of a family are then checked one by one.
+	 *
+	 * @param reader the reader
+	 * @param clientAssets whether to read the texture fields
+	 * @param packName the name of the pack, for the pack specific block patterns
+	 * @param settings the settings
+	 * @return the descriptors, in the order they are declared
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static List<BlockDescriptor> readDescriptors(JsonReader reader, boolean clientAssets, String packName, DDBSettings settings) throws IOException
+	{
+		return readDescriptors(reader, clientAssets, packName, settings, new HashMap<>());
+	}
+
+	private static List<BlockDescriptor> readDescriptors(JsonReader reader, boolean clientAssets, String packName, DDBSettings settings, Map<String, Definition> templates) throws IOException
+	{
+		List<BlockDescriptor> descriptors = new ArrayList<>();
+		int skipped = 0;
 
-		@Override
-		public BlockPack deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException
+		reader.beginObject();
+		while (reader.hasNext())
 		{
-			JsonObject blocks = json.getAsJsonObject();
+			String name = reader.nextName();
+			if (name.equals(TEMPLATES))
+			{
+				reader.beginObject();
+				while (reader.hasNext())
+				{
+					String templateName = reader.nextName();
+					Definition template = readDefinition(reader, clientAssets, templates, DDBSettings.ALL);
+					template.descriptor.asTemplate();
+					templates.put(templateName, template);
+				}
+				reader.endObject();
+				continue;
+			}
+
+			if (settings.isDefinitionDenied(packName, name))
+			{
+				reader.skipValue();
+				skipped++;
+				continue;
+			}
 
-			for (Entry<String, JsonElement> entry : blocks.entrySet())
+			Definition def = readDefinition(reader, clientAssets, templates, settings);
+			if (def == null)
 			{
-				BlockDescriptor desc = context.deserialize(entry.getValue(), BlockDescriptor.class);
-				desc.name = entry.getKey();
-				if (desc.textures != null && desc.textures.get("front") != null && desc.type == BlockType.STANDARD)
+				skipped++;
+				continue;
+			}
+
+			def.descriptor.name = name;
+			List<BlockDescriptor> members = def.descriptor.expandFamily();
+			BlockDescriptor first = members.get(0);
+			boolean hasRecipes = false;
+			for (BlockDescriptor desc : members)
+			{
+				if (def.hasFront && desc.type == BlockType.STANDARD)
 					desc.type = BlockType.DIRECTIONAL;
 				if (desc.type == BlockType.STAIRS)
 					desc.opaque = false;
 
-				desc.createBlock(pack);
+				if (!settings.isBlockAllowed(packName, desc.name, desc.type))
+				{
+					skipped++;
+					continue;
+				}
+
+				//the recipes of the family go to its first allowed member
+				if (!hasRecipes && desc != first)
+				{
+					desc.recipes = first.recipes;
+					desc.furnaceRecipe = first.furnaceRecipe;
+				}
+				hasRecipes = true;
+				descriptors.add(desc);
 			}
+		}
+		reader.endObject();
+
+		if (skipped > 0)
+			DDB.log.info("Skipped {} block(s) of {} denied by {}", skipped, packName, DDBSettings.FILE);
+		return descriptors;
+	}
+
+	/**
+	 * Reads a single descriptor or template object, resolving the template it extends.<br>
+	 * The values are read straight from the <i>reader</i>, see {@link DescriptorFields}. The template is only known once the whole object is
+	 * read, as <code>"extends"</code> can come after the other fields, so the descriptor inherits the fields it doesn't declare afterwards.
+	 *
+	 * @param reader the reader
+	 * @param clientAssets whether to read the texture fields
+	 * @param templates the templates declared so far
+	 * @param settings the settings, to skip the definitions of a denied type
+	 * @return the definition, or <b>null</b> if its type is denied
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static Definition readDefinition(JsonReader reader, boolean clientAssets, Map<String, Definition> templates, DDBSettings settings) throws IOException
+	{
+		BlockDescriptor desc = new BlockDescriptor();
+		Set<String> declared = new HashSet<>();
+		String parentName = null;
+		boolean hasTextures = false;
+		boolean hasFront = false;
+
+		reader.beginObject();
+		while (reader.hasNext())
+		{
+			String field = reader.nextName();
+			if (field.equals("textures"))
+				hasTextures = true;
+
+			if (field.equals(EXTENDS))
+				parentName = reader.nextString();
+			else if (!clientAssets && field.equals("textures"))
+				hasFront = hasFront(reader);
+			else if ((clientAssets || !clientFields.contains(field)) && DescriptorFields.read(reader, field, desc))
+				declared.add(field);
+			else
+				reader.skipValue();
+		}
+		reader.endObject();
+
+		Definition parent = null;
+		if (parentName != null)
+		{
+			parent = templates.get(parentName);
+			if (parent == null)
+				throw new JsonParseException("Unknown template " + parentName + ", templates must be declared before being extended");
+		}
+
+		if (parent != null)
+			desc.inherit(parent.descriptor, declared);
+		if (isTypeDenied(desc, settings))
 			return null;
+
+		if (!hasTextures)
+			hasFront = parent != null && parent.hasFront;
+		else if (clientAssets)
+			hasFront = desc.textures != null && desc.textures.get("front") != null;
+
+		return new Definition(desc, hasFront);
+	}
+
+	/**
+	 * Checks whether the type of the <i>descriptor</i> is denied.<br>
+	 * Families are left to be checked member by member.
+	 *
+	 * @param desc the descriptor
+	 * @param settings the settings
+	 * @return true, if denied
+	 */
+	private static boolean isTypeDenied(BlockDescriptor desc, DDBSettings settings)
+	{
+		if (desc.family != null || desc.type == null)
+			return false;
+		//DIRECTIONAL is only known once the textures are read, leave STANDARD to the final check
+		return desc.type != BlockType.STANDARD && !settings.isTypeAllowed(desc.type);
+	}
+
+	/**
+	 * Checks whether the textures object has a <code>front</code> texture, without reading the other values.
+	 *
+	 * @param reader the reader
+	 * @return true, if successful
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static boolean hasFront(JsonReader reader) throws IOException
+	{
+		if (reader.peek() != JsonToken.BEGIN_OBJECT)
+		{
+			reader.skipValue();
+			return false;
 		}
 
+		boolean front = false;
+		reader.beginObject();
+		while (reader.hasNext())
+		{
+			String key = reader.nextName();
+			if (key.equals("front") && reader.peek() != JsonToken.NULL)
+				front = true;
+			reader.skipValue();
+		}
+		reader.endObject();
+		return front;
+	}
+
+	/**
+	 * A descriptor read from the pack file, with whether its textures define a <code>front</code>.<br>
+	 * The textures are not kept on a dedicated server, so the flag has to be carried along for the descriptors extending a template.
+	 */
+	private static class Definition
+	{
+		private final BlockDescriptor descriptor;
+		private final boolean hasFront;
+
+		private Definition(BlockDescriptor descriptor, boolean hasFront)
+		{
+			this.descriptor = descriptor;
+			this.hasFront = hasFront;
+		}
 	}
 }
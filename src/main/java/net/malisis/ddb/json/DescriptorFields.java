@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import net.malisis.ddb.BlockDescriptor;
+import net.malisis.ddb.BlockType;
+import net.malisis.ddb.DDBRecipe;
+import net.malisis.ddb.DDBSmeltingRecipe;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Reads the fields of a {@link BlockDescriptor} straight from a {@link JsonReader}, each value once and into its final type.<br>
+ * The fields are listed explicitly, like in {@link BlockDescriptor#derive()}, so a new field of {@link BlockDescriptor} has to be added
+ * here as well. The values themselves are read with the Gson adapters for their types.
+ *
+ * @author Ordinastie
+ *
+ */
+class DescriptorFields
+{
+	private static final Gson gson = new Gson();
+	private static final TypeAdapter<String> stringAdapter = gson.getAdapter(String.class);
+	private static final TypeAdapter<Float> floatAdapter = gson.getAdapter(Float.class);
+	private static final TypeAdapter<Integer> intAdapter = gson.getAdapter(Integer.class);
+	private static final TypeAdapter<Boolean> booleanAdapter = gson.getAdapter(Boolean.class);
+	private static final TypeAdapter<BlockType> typeAdapter = gson.getAdapter(BlockType.class);
+	private static final TypeAdapter<List<BlockType>> familyAdapter = gson.getAdapter(new TypeToken<List<BlockType>>() {});
+	private static final TypeAdapter<Map<String, String>> texturesAdapter = gson.getAdapter(new TypeToken<Map<String, String>>() {});
+	private static final TypeAdapter<List<DDBRecipe>> recipesAdapter = gson.getAdapter(new TypeToken<List<DDBRecipe>>() {});
+	private static final TypeAdapter<DDBSmeltingRecipe> furnaceAdapter = gson.getAdapter(DDBSmeltingRecipe.class);
+
+	private DescriptorFields()
+	{}
+
+	/**
+	 * Reads the value of the <i>field</i> into the <i>desc</i>.<br>
+	 * An explicit <code>null</code> leaves the default value of a primitive field, as Gson does.
+	 *
+	 * @param reader the reader, positioned on the value
+	 * @param field the field name
+	 * @param desc the descriptor
+	 * @return false if the field is not a field of {@link BlockDescriptor}, the value is then left unread
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	static boolean read(JsonReader reader, String field, BlockDescriptor desc) throws IOException
+	{
+		switch (field)
+		{
+			case "type":
+				desc.type = typeAdapter.read(reader);
+				return true;
+			case "family":
+				desc.family = familyAdapter.read(reader);
+				return true;
+			case "name":
+				desc.name = stringAdapter.read(reader);
+				return true;
+			case "textureName":
+				desc.textureName = stringAdapter.read(reader);
+				return true;
+			case "textures":
+				desc.textures = texturesAdapter.read(reader);
+				return true;
+			case "megatextures":
+				desc.megatextures = texturesAdapter.read(reader);
+				return true;
+			case "material":
+				desc.material = stringAdapter.read(reader);
+				return true;
+			case "hardness":
+				Float hardness = floatAdapter.read(reader);
+				if (hardness != null)
+					desc.hardness = hardness;
+				return true;
+			case "soundType":
+				desc.soundType = stringAdapter.read(reader);
+				return true;
+			case "useColorMultiplier":
+				Boolean useColorMultiplier = booleanAdapter.read(reader);
+				if (useColorMultiplier != null)
+					desc.useColorMultiplier = useColorMultiplier;
+				return true;
+			case "opaque":
+				Boolean opaque = booleanAdapter.read(reader);
+				if (opaque != null)
+					desc.opaque = opaque;
+				return true;
+			case "translucent":
+				Boolean translucent = booleanAdapter.read(reader);
+				if (translucent != null)
+					desc.translucent = translucent;
+				return true;
+			case "lightValue":
+				Integer lightValue = intAdapter.read(reader);
+				if (lightValue != null)
+					desc.lightValue = lightValue;
+				return true;
+			case "numBlocks":
+				Integer numBlocks = intAdapter.read(reader);
+				if (numBlocks != null)
+					desc.numBlocks = numBlocks;
+				return true;
+			case "recipes":
+				desc.recipes = recipesAdapter.read(reader);
+				return true;
+			case "furnaceRecipe":
+				desc.furnaceRecipe = furnaceAdapter.read(reader);
+				return true;
+			default:
+				return false;
+		}
+	}
+}
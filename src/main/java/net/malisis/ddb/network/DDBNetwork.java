@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import net.malisis.ddb.DDB;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.NetworkRegistry;
+import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Network channel of DDB, used to check that the clients run the same packs as the server.<br>
+ * When a player logs in, the server sends the {@link FingerprintMessage fingerprints} of its packs. The client replies with a
+ * {@link PackReportMessage report} of the packs it lacks, the packs the server doesn't have, and the packs whose fingerprint differs. The
+ * server sends the {@link ManifestMessage manifest} of each of those, and the client reports back only the files that differ.
+ *
+ * @author Ordinastie
+ *
+ */
+public class DDBNetwork
+{
+	public static SimpleNetworkWrapper channel;
+
+	/**
+	 * Registers the channel and its messages.
+	 */
+	public static void register()
+	{
+		channel = NetworkRegistry.INSTANCE.newSimpleChannel(DDB.modid);
+		channel.registerMessage(FingerprintMessage.Handler.class, FingerprintMessage.class, 0, Side.CLIENT);
+		channel.registerMessage(ManifestMessage.Handler.class, ManifestMessage.class, 1, Side.CLIENT);
+		channel.registerMessage(PackReportMessage.Handler.class, PackReportMessage.class, 2, Side.SERVER);
+		MinecraftForge.EVENT_BUS.register(new DDBNetwork());
+	}
+
+	@SubscribeEvent
+	public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event)
+	{
+		if (event.player instanceof EntityPlayerMP)
+			channel.sendTo(FingerprintMessage.fromPacks(), (EntityPlayerMP) event.player);
+	}
+
+	static void writeStrings(ByteBuf buf, List<String> list)
+	{
+		buf.writeInt(list.size());
+		for (String str : list)
+			ByteBufUtils.writeUTF8String(buf, str);
+	}
+
+	static List<String> readStrings(ByteBuf buf)
+	{
+		int size = buf.readInt();
+		List<String> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			list.add(ByteBufUtils.readUTF8String(buf));
+		return list;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.network;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDB;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * Fingerprints of the packs of the server, sent to the client when it logs in.
+ *
+ * @author Ordinastie
+ *
+ */
+public class FingerprintMessage implements IMessage
+{
+	private Map<String, Long> fingerprints = new LinkedHashMap<>();
+
+	public FingerprintMessage()
+	{}
+
+	/**
+	 * Creates the message with the fingerprints of all the loaded packs.
+	 *
+	 * @return the fingerprint message
+	 */
+	public static FingerprintMessage fromPacks()
+	{
+		FingerprintMessage message = new FingerprintMessage();
+		for (BlockPack pack : DDB.getListPacks())
+			if (pack.getManifest() != null)
+				message.fingerprints.put(pack.getName(), pack.getManifest().getFingerprint());
+		return message;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		int size = buf.readInt();
+		for (int i = 0; i < size; i++)
+			fingerprints.put(ByteBufUtils.readUTF8String(buf), buf.readLong());
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		buf.writeInt(fingerprints.size());
+		for (Map.Entry<String, Long> entry : fingerprints.entrySet())
+		{
+			ByteBufUtils.writeUTF8String(buf, entry.getKey());
+			buf.writeLong(entry.getValue());
+		}
+	}
+
+	public static class Handler implements IMessageHandler<FingerprintMessage, PackReportMessage>
+	{
+		@Override
+		public PackReportMessage onMessage(FingerprintMessage message, MessageContext ctx)
+		{
+			PackReportMessage report = new PackReportMessage();
+			for (Map.Entry<String, Long> entry : message.fingerprints.entrySet())
+			{
+				BlockPack pack = DDB.getPack(entry.getKey());
+				if (pack == null || pack.getManifest() == null)
+					report.missing.add(entry.getKey());
+				else if (pack.getManifest().getFingerprint() != entry.getValue())
+					report.mismatched.add(entry.getKey());
+			}
+
+			for (BlockPack pack : DDB.getListPacks())
+				if (!message.fingerprints.containsKey(pack.getName()))
+					report.extra.add(pack.getName());
+
+			return report;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.netty.buffer.ByteBuf;
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDB;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * File hashes of a server pack whose fingerprint differs on the client.
+ *
+ * @author Ordinastie
+ *
+ */
+public class ManifestMessage implements IMessage
+{
+	/** Most files listed per pack in the report sent back, to keep it within the client packet size. */
+	private static final int maxListed = 32;
+
+	private String pack;
+	private Map<String, Long> entries = new TreeMap<>();
+
+	public ManifestMessage()
+	{}
+
+	public ManifestMessage(BlockPack pack)
+	{
+		this.pack = pack.getName();
+		this.entries = pack.getManifest().getEntries();
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		pack = ByteBufUtils.readUTF8String(buf);
+		int size = buf.readInt();
+		for (int i = 0; i < size; i++)
+			entries.put(ByteBufUtils.readUTF8String(buf), buf.readLong());
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		ByteBufUtils.writeUTF8String(buf, pack);
+		buf.writeInt(entries.size());
+		for (Map.Entry<String, Long> entry : entries.entrySet())
+		{
+			ByteBufUtils.writeUTF8String(buf, entry.getKey());
+			buf.writeLong(entry.getValue());
+		}
+	}
+
+	public static class Handler implements IMessageHandler<ManifestMessage, PackReportMessage>
+	{
+		@Override
+		public PackReportMessage onMessage(ManifestMessage message, MessageContext ctx)
+		{
+			BlockPack pack = DDB.getPack(message.pack);
+			if (pack == null || pack.getManifest() == null)
+				return null;
+
+			//from the server point of view : + only on the server, - only on the client
+			List<String> diff = pack.getManifest().diff(message.entries);
+			for (int i = 0; i < diff.size(); i++)
+			{
+				String path = diff.get(i);
+				if (path.charAt(0) != '~')
+					diff.set(i, (path.charAt(0) == '+' ? '-' : '+') + path.substring(1));
+			}
+			int count = diff.size();
+			if (diff.size() > maxListed)
+			{
+				int more = diff.size() - maxListed;
+				diff = new ArrayList<>(diff.subList(0, maxListed));
+				diff.add("... and " + more + " more");
+			}
+
+			PackReportMessage report = new PackReportMessage();
+			report.differences.put(message.pack, diff);
+			report.differenceCounts.put(message.pack, count);
+			return report;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.network;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDB;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * Report of the client about its packs compared to the server ones.
+ *
+ * @author Ordinastie
+ *
+ */
+public class PackReportMessage implements IMessage
+{
+	/** Packs of the server the client doesn't have. */
+	List<String> missing = new ArrayList<>();
+	/** Packs of the client the server doesn't have. */
+	List<String> extra = new ArrayList<>();
+	/** Packs whose fingerprint differs, the server should send their manifest. */
+	List<String> mismatched = new ArrayList<>();
+	/** Files that differ, by pack, truncated to the first ones. */
+	Map<String, List<String>> differences = new LinkedHashMap<>();
+	/** Total number of files that differ, by pack. */
+	Map<String, Integer> differenceCounts = new LinkedHashMap<>();
+
+	public PackReportMessage()
+	{}
+
+	private boolean isEmpty()
+	{
+		return missing.isEmpty() && extra.isEmpty() && mismatched.isEmpty() && differences.isEmpty();
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		missing = DDBNetwork.readStrings(buf);
+		extra = DDBNetwork.readStrings(buf);
+		mismatched = DDBNetwork.readStrings(buf);
+		int size = buf.readInt();
+		for (int i = 0; i < size; i++)
+		{
+			String pack = ByteBufUtils.readUTF8String(buf);
+			differences.put(pack, DDBNetwork.readStrings(buf));
+			differenceCounts.put(pack, buf.readInt());
+		}
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		DDBNetwork.writeStrings(buf, missing);
+		DDBNetwork.writeStrings(buf, extra);
+		DDBNetwork.writeStrings(buf, mismatched);
+		buf.writeInt(differences.size());
+		for (Map.Entry<String, List<String>> entry : differences.entrySet())
+		{
+			ByteBufUtils.writeUTF8String(buf, entry.getKey());
+			DDBNetwork.writeStrings(buf, entry.getValue());
+			buf.writeInt(differenceCounts.getOrDefault(entry.getKey(), entry.getValue().size()));
+		}
+	}
+
+	public static class Handler implements IMessageHandler<PackReportMessage, IMessage>
+	{
+		@Override
+		public IMessage onMessage(PackReportMessage message, MessageContext ctx)
+		{
+			EntityPlayerMP player = ctx.getServerHandler().playerEntity;
+			player.mcServer.addScheduledTask(() -> handle(message, player));
+			return null;
+		}
+
+		private void handle(PackReportMessage message, EntityPlayerMP player)
+		{
+			if (message.isEmpty())
+				return;
+
+			String name = player.getName();
+			if (!message.missing.isEmpty())
+				warn(player, "Missing DDB packs : " + String.join(", ", message.missing));
+			if (!message.extra.isEmpty())
+				DDB.log.info("{} has DDB packs the server doesn't have : {}", name, String.join(", ", message.extra));
+
+			for (String packName : message.mismatched)
+			{
+				BlockPack pack = DDB.getPack(packName);
+				if (pack != null && pack.getManifest() != null)
+					DDBNetwork.channel.sendTo(new ManifestMessage(pack), player);
+			}
+
+			for (Map.Entry<String, List<String>> entry : message.differences.entrySet())
+			{
+				int count = message.differenceCounts.getOrDefault(entry.getKey(), entry.getValue().size());
+				warn(player, "DDB pack " + entry.getKey() + " differs from the server one (" + count + " files)");
+				for (String path : entry.getValue())
+					DDB.log.warn("{} [{}] {}", name, entry.getKey(), path);
+			}
+		}
+
+		private void warn(EntityPlayerMP player, String text)
+		{
+			DDB.log.warn("{} : {}", player.getName(), text);
+			TextComponentString msg = new TextComponentString(text);
+			msg.getStyle().setColor(TextFormatting.YELLOW);
+			player.sendMessage(msg);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minecraft.client.resources.data.AnimationMetadataSection;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Shared state of the animated DDB textures following the same timeline.<br>
+ * Textures with the same frame sequence and frame times belong to the same group, which is advanced once per client tick no matter how
+ * many textures it holds. Each texture then only uploads its frame when the current frame index actually changed.<br>
+ * Interpolated animations blend their frames every tick and are not grouped.
+ *
+ * @author Ordinastie
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class AnimationGroup
+{
+	private static final Map<String, AnimationGroup> groups = new ConcurrentHashMap<>();
+	private static int currentTick;
+
+	private final int[] frameIndexes;
+	private final int[] frameTimes;
+	private int frameCounter;
+	private int tickCounter;
+	private int lastTick = -1;
+
+	private AnimationGroup(int[] frameIndexes, int[] frameTimes)
+	{
+		this.frameIndexes = frameIndexes;
+		this.frameTimes = frameTimes;
+	}
+
+	/**
+	 * Gets the index of the frame to display for the current tick.
+	 *
+	 * @return the frame index
+	 */
+	public int getFrameIndex()
+	{
+		if (lastTick != currentTick)
+		{
+			lastTick = currentTick;
+			if (++tickCounter >= frameTimes[frameCounter])
+			{
+				frameCounter = (frameCounter + 1) % frameIndexes.length;
+				tickCounter = 0;
+			}
+		}
+		return frameIndexes[frameCounter];
+	}
+
+	/**
+	 * Gets the {@link AnimationGroup} for the <i>animation</i>.
+	 *
+	 * @param animation the animation
+	 * @param nbFrames the number of frames of the texture, used when the animation does not list its frames
+	 * @return the group, <code>null</code> if the animation is interpolated or has no frame
+	 */
+	public static AnimationGroup get(AnimationMetadataSection animation, int nbFrames)
+	{
+		if (animation.isInterpolate())
+			return null;
+
+		int count = animation.getFrameCount() > 0 ? animation.getFrameCount() : nbFrames;
+		if (count <= 0)
+			return null;
+
+		int[] indexes = new int[count];
+		int[] times = new int[count];
+		StringBuilder key = new StringBuilder();
+		for (int i = 0; i < count; i++)
+		{
+			indexes[i] = animation.getFrameCount() > 0 ? animation.getFrameIndex(i) : i;
+			times[i] = Math.max(1, animation.getFrameCount() > 0 ? animation.getFrameTimeSingle(i) : animation.getFrameTime());
+			key.append(indexes[i]).append('/').append(times[i]).append(',');
+		}
+
+		return groups.computeIfAbsent(key.toString(), k -> new AnimationGroup(indexes, times));
+	}
+
+	/**
+	 * Removes all the groups.<br>
+	 * Called when the atlas is built again, the icons then get their group again as they load, so the groups of textures removed or
+	 * edited since the last reload do not pile up.
+	 */
+	public static void clear()
+	{
+		groups.clear();
+	}
+
+	/**
+	 * Advances all the groups to the next tick.<br>
+	 * Called once per client tick, while the game is not paused.
+	 */
+	public static void tick()
+	{
+		currentTick++;
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.malisis.ddb.BlockPack;
+import net.minecraft.client.resources.data.AnimationMetadataSection;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Memory-bounded LRU cache of decoded textures, kept across resource reloads.<br>
+ * Entries are keyed by pack and path, and hold the stamp of the source files they were decoded from, so a texture is only decoded again
+ * when its content changed. The size of the cache is set in MB with the <code>ddb.textureCache</code> system property (64 by default, 0
+ * to disable it). It is not filled when <code>ddb.releaseTextureData</code> is set.<br>
+ * The cached frames are never handed out directly, {@link Entry#getFrame(int)} returns a copy the sprite is free to modify.
+ *
+ * @author Ordinastie
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class DecodedTextureCache
+{
+	private static final long maxBytes = Long.getLong("ddb.textureCache", 64) * 1024 * 1024;
+
+	private static final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75F, true);
+	private static long bytes;
+
+	/**
+	 * Gets the cached texture for the <i>path</i> in the <i>pack</i>.
+	 *
+	 * @param pack the pack
+	 * @param path the path
+	 * @param stamp the current stamp of the texture source files
+	 * @return the entry, <code>null</code> if not cached or if the source changed since
+	 */
+	public static synchronized Entry get(BlockPack pack, String path, long stamp)
+	{
+		Entry entry = entries.get(key(pack, path));
+		return entry != null && entry.stamp == stamp ? entry : null;
+	}
+
+	/**
+	 * Caches the decoded texture for the <i>path</i> in the <i>pack</i>.<br>
+	 * The <i>frames</i> are copied, and the least recently used entries are evicted to stay under the size limit.
+	 *
+	 * @param pack the pack
+	 * @param path the path
+	 * @param stamp the stamp of the texture source files
+	 * @param width the width
+	 * @param height the height
+	 * @param frames the level 0 pixels of each frame, <code>null</code> for missing frames
+	 * @param animation the animation
+	 */
+	public static void put(BlockPack pack, String path, long stamp, int width, int height, int[][] frames, AnimationMetadataSection animation)
+	{
+		if (maxBytes <= 0 || stamp == -1)
+			return;
+
+		int[][] copy = new int[frames.length][];
+		long size = 64 + 16 + 4L * frames.length;
+		for (int i = 0; i < frames.length; i++)
+		{
+			if (frames[i] == null)
+				continue;
+			copy[i] = frames[i].clone();
+			size += 16 + 4L * copy[i].length;
+		}
+		if (size > maxBytes)
+			return;
+
+		Entry entry = new Entry(stamp, width, height, copy, animation, size);
+		synchronized (DecodedTextureCache.class)
+		{
+			Entry old = entries.put(key(pack, path), entry);
+			if (old != null)
+				bytes -= old.bytes;
+			bytes += size;
+
+			while (bytes > maxBytes)
+			{
+				Map.Entry<String, Entry> eldest = entries.entrySet().iterator().next();
+				bytes -= eldest.getValue().bytes;
+				entries.remove(eldest.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Clears the cache.
+	 */
+	public static synchronized void clear()
+	{
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Gets the number of bytes held by the cache.
+	 *
+	 * @return the bytes
+	 */
+	public static synchronized long getBytes()
+	{
+		return bytes;
+	}
+
+	private static String key(BlockPack pack, String path)
+	{
+		return pack.getName() + ":" + path;
+	}
+
+	public static class Entry
+	{
+		private final long stamp;
+		private final int width;
+		private final int height;
+		private final int[][] frames;
+		private final AnimationMetadataSection animation;
+		private final long bytes;
+
+		private Entry(long stamp, int width, int height, int[][] frames, AnimationMetadataSection animation, long bytes)
+		{
+			this.stamp = stamp;
+			this.width = width;
+			this.height = height;
+			this.frames = frames;
+			this.animation = animation;
+			this.bytes = bytes;
+		}
+
+		public int getWidth()
+		{
+			return width;
+		}
+
+		public int getHeight()
+		{
+			return height;
+		}
+
+		public int getFrameCount()
+		{
+			return frames.length;
+		}
+
+		/**
+		 * Gets a copy of the pixels of the frame at <i>index</i>.
+		 *
+		 * @param index the index
+		 * @return the pixels, <code>null</code> if the frame was missing
+		 */
+		public int[] getFrame(int index)
+		{
+			return frames[index] != null ? frames[index].clone() : null;
+		}
+
+		/**
+		 * Gets the dimensions of the cached texture, as {@link TextureHeader#readPng(java.io.InputStream)} would read them.
+		 *
+		 * @return the header
+		 */
+		public TextureHeader getHeader()
+		{
+			return new TextureHeader(width, (int) Math.min(Integer.MAX_VALUE, (long) height * frames.length));
+		}
+
+		public AnimationMetadataSection getAnimation()
+		{
+			return animation;
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Compact copy of the frames of an animated texture, with all their mipmap levels.<br>
+ * The colors are stored in a palette shared by all the frames, and each pixel as a <code>byte</code> or <code>char</code> index in that
+ * palette. Animated textures rarely use more than a few hundred colors, so this takes a quarter or half of the <code>int</code> ARGB
+ * arrays. Textures with more than 65536 colors are kept as they are.
+ *
+ * @author Ordinastie
+ *
+ */
+@SideOnly(Side.CLIENT)
+public final class PackedFrames
+{
+	private final int[] palette;
+	private final byte[][][] byteIndexes;
+	private final char[][][] charIndexes;
+	private final int[][][] raw;
+	private final int frameCount;
+
+	private PackedFrames(int[] palette, byte[][][] byteIndexes, char[][][] charIndexes, int[][][] raw, int frameCount)
+	{
+		this.palette = palette;
+		this.byteIndexes = byteIndexes;
+		this.charIndexes = charIndexes;
+		this.raw = raw;
+		this.frameCount = frameCount;
+	}
+
+	public int getFrameCount()
+	{
+		return frameCount;
+	}
+
+	/**
+	 * Unpacks the frame at <i>index</i> into <i>dest</i>.<br>
+	 * The arrays of <i>dest</i> are reused when they have the right size, so a single buffer can be used for every upload.
+	 *
+	 * @param index the index
+	 * @param dest the destination, or <code>null</code>
+	 * @return the unpacked mipmaps, <code>null</code> if the frame is missing
+	 */
+	public int[][] unpack(int index, int[][] dest)
+	{
+		if (raw != null)
+			return raw[index];
+
+		int levels = byteIndexes != null ? (byteIndexes[index] != null ? byteIndexes[index].length : -1)
+				: (charIndexes[index] != null ? charIndexes[index].length : -1);
+		if (levels < 0)
+			return null;
+
+		if (dest == null || dest.length != levels)
+			dest = new int[levels][];
+		for (int level = 0; level < levels; level++)
+		{
+			int length = byteIndexes != null ? byteIndexes[index][level].length : charIndexes[index][level].length;
+			if (dest[level] == null || dest[level].length != length)
+				dest[level] = new int[length];
+
+			int[] pixels = dest[level];
+			if (byteIndexes != null)
+			{
+				byte[] indexes = byteIndexes[index][level];
+				for (int i = 0; i < length; i++)
+					pixels[i] = palette[indexes[i] & 0xFF];
+			}
+			else
+			{
+				char[] indexes = charIndexes[index][level];
+				for (int i = 0; i < length; i++)
+					pixels[i] = palette[indexes[i]];
+			}
+		}
+		return dest;
+	}
+
+	/**
+	 * Gets the number of bytes used by this {@link PackedFrames}.
+	 *
+	 * @return the bytes
+	 */
+	public long getBytes()
+	{
+		long bytes = 32;
+		if (palette != null)
+			bytes += 16 + 4L * palette.length;
+		for (int i = 0; i < frameCount; i++)
+		{
+			bytes += 16;
+			if (byteIndexes != null && byteIndexes[i] != null)
+				for (byte[] level : byteIndexes[i])
+					bytes += 16 + level.length;
+			else if (charIndexes != null && charIndexes[i] != null)
+				for (char[] level : charIndexes[i])
+					bytes += 16 + 2L * level.length;
+			else if (raw != null && raw[i] != null)
+				for (int[] level : raw[i])
+					bytes += 16 + 4L * level.length;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Packs the <i>frames</i>, as held by the sprite after the mipmaps are generated.
+	 *
+	 * @param frames the frames
+	 * @return the packed frames
+	 */
+	public static PackedFrames pack(List<int[][]> frames)
+	{
+		int count = frames.size();
+		int[] palette = frames	.stream()
+								.filter(f -> f != null)
+								.flatMap(Arrays::stream)
+								.filter(l -> l != null)
+								.flatMapToInt(IntStream::of)
+								.distinct()
+								.sorted()
+								.toArray();
+
+		if (palette.length > 65536)
+			return new PackedFrames(null, null, null, frames.toArray(new int[count][][]), count);
+
+		boolean useBytes = palette.length <= 256;
+		byte[][][] byteIndexes = useBytes ? new byte[count][][] : null;
+		char[][][] charIndexes = useBytes ? null : new char[count][][];
+		for (int f = 0; f < count; f++)
+		{
+			int[][] frame = frames.get(f);
+			if (frame == null)
+				continue;
+
+			if (useBytes)
+				byteIndexes[f] = new byte[frame.length][];
+			else
+				charIndexes[f] = new char[frame.length][];
+
+			for (int level = 0; level < frame.length; level++)
+			{
+				int[] pixels = frame[level] != null ? frame[level] : new int[0];
+				if (useBytes)
+				{
+					byte[] indexes = byteIndexes[f][level] = new byte[pixels.length];
+					for (int i = 0; i < pixels.length; i++)
+						indexes[i] = (byte) Arrays.binarySearch(palette, pixels[i]);
+				}
+				else
+				{
+					char[] indexes = charIndexes[f][level] = new char[pixels.length];
+					for (int i = 0; i < pixels.length; i++)
+						indexes[i] = (char) Arrays.binarySearch(palette, pixels[i]);
+				}
+			}
+		}
+
+		return new PackedFrames(palette, byteIndexes, charIndexes, null, count);
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Pre-decoded texture, stored in packs as <code>.ddbt</code> files next to or instead of the <code>.png</code>.<br>
+ * The file is made of a header (magic, version, flags, frame width, frame height, frame count), the optional <code>.png.mcmeta</code>
+ * content inlined as UTF-8 JSON, then the ARGB pixels of every frame, one after the other, optionally deflated.<br>
+ * The pixels are read directly into one array per frame, without going through {@link javax.imageio.ImageIO} or a
+ * {@link BufferedImage}.
+ *
+ * @author Ordinastie
+ *
+ */
+public class RawTexture
+{
+	public static final String EXTENSION = ".ddbt";
+
+	private static final int MAGIC = 0x44444254; //DDBT
+	private static final int VERSION = 1;
+
+	public static final int DEFLATE = 1;
+	public static final int ANIMATION = 1 << 1;
+
+	private final int width;
+	private final int height;
+	private final int[][] frames;
+	private final JsonObject metadata;
+
+	private RawTexture(int width, int height, int[][] frames, JsonObject metadata)
+	{
+		this.width = width;
+		this.height = height;
+		this.frames = frames;
+		this.metadata = metadata;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	public int getFrameCount()
+	{
+		return frames.length;
+	}
+
+	/**
+	 * Gets the ARGB pixels of the frame at <i>index</i>.
+	 *
+	 * @param index the index
+	 * @return the pixels
+	 */
+	public int[] getFrame(int index)
+	{
+		return frames[index];
+	}
+
+	/**
+	 * Gets the inlined <code>.mcmeta</code> content.
+	 *
+	 * @return the metadata, <code>null</code> if the texture has none
+	 */
+	public JsonObject getMetadata()
+	{
+		return metadata;
+	}
+
+	/**
+	 * Reads the dimensions of the raw texture in the <i>stream</i>, without reading its pixels.
+	 *
+	 * @param stream the stream
+	 * @return the texture header
+	 * @throws IOException if the data is not a valid raw texture
+	 */
+	public static TextureHeader readHeader(InputStream stream) throws IOException
+	{
+		DataInputStream in = new DataInputStream(stream);
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a DDB raw texture");
+		int version = in.readUnsignedByte();
+		if (version != VERSION)
+			throw new IOException("Unsupported raw texture version " + version);
+
+		in.readUnsignedByte(); //flags
+		int width = in.readInt();
+		int height = in.readInt();
+		int count = in.readInt();
+		if (width <= 0 || height <= 0 || count <= 0)
+			throw new IOException("Invalid raw texture size " + width + "x" + height + "x" + count);
+		return new TextureHeader(width, (int) Math.min(Integer.MAX_VALUE, (long) height * count));
+	}
+
+	/**
+	 * Reads a {@link RawTexture} from the <i>stream</i>.<br>
+	 * The stream is closed afterwards.
+	 *
+	 * @param stream the stream
+	 * @return the raw texture
+	 * @throws IOException if the data is not a valid raw texture
+	 */
+	public static RawTexture read(InputStream stream) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream)))
+		{
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a DDB raw texture");
+			int version = in.readUnsignedByte();
+			if (version != VERSION)
+				throw new IOException("Unsupported raw texture version " + version);
+
+			int flags = in.readUnsignedByte();
+			int width = in.readInt();
+			int height = in.readInt();
+			int count = in.readInt();
+			if (width <= 0 || height <= 0 || count <= 0 || (long) width * height * count > Integer.MAX_VALUE / 4)
+				throw new IOException("Invalid raw texture size " + width + "x" + height + "x" + count);
+
+			JsonObject metadata = null;
+			if ((flags & ANIMATION) != 0)
+			{
+				byte[] json = new byte[in.readInt()];
+				in.readFully(json);
+				metadata = new JsonParser().parse(new String(json, StandardCharsets.UTF_8)).getAsJsonObject();
+			}
+
+			Inflater inflater = (flags & DEFLATE) != 0 ? new Inflater() : null;
+			try
+			{
+				DataInputStream pixels = inflater != null ? new DataInputStream(new InflaterInputStream(in, inflater)) : in;
+				byte[] buffer = new byte[width * height * 4];
+				int[][] frames = new int[count][];
+				for (int i = 0; i < count; i++)
+				{
+					pixels.readFully(buffer);
+					frames[i] = new int[width * height];
+					ByteBuffer.wrap(buffer).asIntBuffer().get(frames[i]);
+				}
+
+				return new RawTexture(width, height, frames, metadata);
+			}
+			finally
+			{
+				if (inflater != null)
+					inflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Writes the <i>image</i> as a raw texture to the <i>stream</i>.<br>
+	 * The image is cut into square frames, as done for the PNG textures.
+	 *
+	 * @param image the image
+	 * @param metadata the <code>.mcmeta</code> content, or <code>null</code>
+	 * @param deflate whether to compress the pixels
+	 * @param stream the stream
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void write(BufferedImage image, JsonObject metadata, boolean deflate, OutputStream stream) throws IOException
+	{
+		int width = image.getWidth();
+		int height = Math.min(width, image.getHeight());
+		//like the PNG textures, only animated textures have more than one frame
+		int count = metadata != null ? image.getHeight() / height : 1;
+
+		int flags = (deflate ? DEFLATE : 0) | (metadata != null ? ANIMATION : 0);
+		DataOutputStream out = new DataOutputStream(stream);
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(flags);
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeInt(count);
+		if (metadata != null)
+		{
+			byte[] json = metadata.toString().getBytes(StandardCharsets.UTF_8);
+			out.writeInt(json.length);
+			out.write(json);
+		}
+
+		Deflater deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+		DeflaterOutputStream deflaterStream = deflate ? new DeflaterOutputStream(out, deflater) : null;
+		OutputStream pixels = deflate ? deflaterStream : out;
+		try
+		{
+			int[] frame = new int[width * height];
+			ByteBuffer buffer = ByteBuffer.allocate(frame.length * 4);
+			for (int i = 0; i < count; i++)
+			{
+				image.getRGB(0, i * height, width, height, frame, 0, width);
+				buffer.clear();
+				buffer.asIntBuffer().put(frame);
+				pixels.write(buffer.array());
+			}
+
+			if (deflaterStream != null)
+				deflaterStream.finish();
+			out.flush();
+		}
+		finally
+		{
+			if (deflater != null)
+				deflater.end();
+		}
+	}
+}
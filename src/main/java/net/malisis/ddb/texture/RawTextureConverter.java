@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDB;
+
+/**
+ * Converts the PNG textures of a {@link BlockPack} into {@link RawTexture RawTextures}.<br>
+ * Each <code>.png</code> gets a <code>.ddbt</code> next to it, with its <code>.png.mcmeta</code> inlined. Sprite sheets are left as they
+ * are.
+ *
+ * @author Ordinastie
+ *
+ */
+public class RawTextureConverter
+{
+	/**
+	 * Converts the textures of the <i>pack</i>.<br>
+	 * Only the textures without a <code>.ddbt</code>, or with one older than the <code>.png</code> or its <code>.mcmeta</code>, are
+	 * converted. Only FOLDER packs can be converted.
+	 *
+	 * @param pack the pack
+	 * @return the number of converted textures
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static int convert(BlockPack pack) throws IOException
+	{
+		if (pack.getType() != BlockPack.Type.FOLDER)
+			throw new IOException("Only folder packs can be converted, " + pack.getName() + " is a " + pack.getType() + " pack");
+
+		List<Path> images;
+		try (Stream<Path> files = Files.walk(Paths.get(pack.getDirectory())))
+		{
+			images = files.filter(p -> p.toString().endsWith(".png")).collect(Collectors.toList());
+		}
+
+		int count = 0;
+		for (Path png : images)
+		{
+			String base = png.toString().substring(0, png.toString().length() - 4);
+			if (Files.exists(Paths.get(base + ".sheet.json")))
+				continue;
+
+			Path mcmeta = Paths.get(png + ".mcmeta");
+			Path raw = Paths.get(base + RawTexture.EXTENSION);
+			if (isUpToDate(raw, png) && (!Files.exists(mcmeta) || isUpToDate(raw, mcmeta)))
+				continue;
+
+			BufferedImage image = ImageIO.read(png.toFile());
+			if (image == null)
+			{
+				DDB.log.error("Could not convert {}, not a valid PNG.", png);
+				continue;
+			}
+
+			JsonObject metadata = null;
+			if (Files.exists(mcmeta))
+			{
+				try (Reader reader = Files.newBufferedReader(mcmeta, StandardCharsets.UTF_8))
+				{
+					metadata = new JsonParser().parse(reader).getAsJsonObject();
+				}
+				catch (JsonParseException | IllegalStateException e)
+				{
+					DDB.log.error("Could not read {}, converting {} without animation : {}", mcmeta, png, e.getMessage());
+				}
+			}
+
+			try (OutputStream os = Files.newOutputStream(raw))
+			{
+				RawTexture.write(image, metadata, true, os);
+			}
+			count++;
+		}
+
+		return count;
+	}
+
+	private static boolean isUpToDate(Path raw, Path source) throws IOException
+	{
+		return Files.exists(raw) && Files.getLastModifiedTime(raw).compareTo(Files.getLastModifiedTime(source)) >= 0;
+	}
+}
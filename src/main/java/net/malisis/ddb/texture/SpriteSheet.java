@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import net.malisis.ddb.BlockPack;
+import net.malisis.ddb.DDB;
+import net.malisis.ddb.DDBIcon;
+import net.minecraft.client.renderer.texture.TextureUtil;
+import net.minecraft.client.resources.data.AnimationMetadataSection;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * A single image holding many textures of a {@link BlockPack}.<br>
+ * The sheet <code>name</code> is made of <code>name.png</code> and its index <code>name.sheet.json</code>, mapping each sprite name to
+ * its rectangle, either directly as <code>[x, y, width, height]</code> or as
+ * <code>{ "rect" : [x, y, width, height], "animation" : { ... } }</code>.<br>
+ * Sprites are referenced in the descriptors textures as <code>name#sprite</code>. The image is decoded once and each sprite is a view
+ * of it, without copying the pixels.
+ *
+ * @author Ordinastie
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class SpriteSheet
+{
+	public static final char SEPARATOR = '#';
+
+	private final String name;
+	private final BufferedImage image;
+	private final Map<String, Sprite> sprites = new HashMap<>();
+
+	private SpriteSheet(String name, BufferedImage image)
+	{
+		this.name = name;
+		this.image = image;
+	}
+
+	/**
+	 * Gets the name of this {@link SpriteSheet}.
+	 *
+	 * @return the name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Gets the image of the <i>sprite</i>.
+	 *
+	 * @param sprite the sprite
+	 * @return the image, <code>null</code> if the sprite is not in this sheet
+	 */
+	public BufferedImage getImage(String sprite)
+	{
+		Sprite s = sprites.get(sprite);
+		if (s == null)
+			return null;
+		return image.getSubimage(s.x, s.y, s.width, s.height);
+	}
+
+	/**
+	 * Gets the animation declared in the index for the <i>sprite</i>.
+	 *
+	 * @param sprite the sprite
+	 * @return the animation, <code>null</code> if none
+	 */
+	public AnimationMetadataSection getAnimation(String sprite)
+	{
+		Sprite s = sprites.get(sprite);
+		return s != null ? s.animation : null;
+	}
+
+	/**
+	 * Gets the number of pixels of the sheet image.
+	 *
+	 * @return the pixels
+	 */
+	public long getPixels()
+	{
+		return (long) image.getWidth() * image.getHeight();
+	}
+
+	/**
+	 * Loads the {@link SpriteSheet} <i>name</i> from the <i>pack</i>.
+	 *
+	 * @param pack the pack
+	 * @param name the name
+	 * @return the sprite sheet, <code>null</code> if the sheet image or index could not be read
+	 */
+	public static SpriteSheet load(BlockPack pack, String name)
+	{
+		try (InputStream indexStream = pack.getInputStream(name + ".sheet.json"))
+		{
+			if (indexStream == null)
+			{
+				DDB.log.error("Sprite sheet index {}.sheet.json not found in pack {}", name, pack.getName());
+				return null;
+			}
+
+			InputStream imageStream = pack.getInputStream(name + ".png");
+			if (imageStream == null)
+			{
+				DDB.log.error("Sprite sheet image {}.png not found in pack {}", name, pack.getName());
+				return null;
+			}
+
+			BufferedImage image = TextureUtil.readBufferedImage(imageStream);
+			if (image == null)
+			{
+				DDB.log.error("Sprite sheet image {}.png in pack {} could not be decoded", name, pack.getName());
+				return null;
+			}
+
+			SpriteSheet sheet = new SpriteSheet(name, image);
+			try (Reader reader = new InputStreamReader(indexStream, StandardCharsets.UTF_8))
+			{
+				sheet.readIndex(new JsonParser().parse(reader).getAsJsonObject());
+			}
+			return sheet;
+		}
+		catch (IOException | JsonParseException | IllegalStateException e)
+		{
+			DDB.log.error("Could not read sprite sheet {} in pack {} : {}", name, pack.getName(), e.getMessage());
+			return null;
+		}
+	}
+
+	private void readIndex(JsonObject json)
+	{
+		for (Entry<String, JsonElement> entry : json.entrySet())
+		{
+			JsonElement value = entry.getValue();
+			AnimationMetadataSection animation = null;
+			if (value.isJsonObject())
+			{
+				JsonObject obj = value.getAsJsonObject();
+				if (obj.has("animation"))
+					animation = DDBIcon.parseAnimation(obj);
+				value = obj.get("rect");
+			}
+
+			JsonArray rect = value.getAsJsonArray();
+			Sprite sprite = new Sprite(rect.get(0).getAsInt(), rect.get(1).getAsInt(), rect.get(2).getAsInt(), rect.get(3).getAsInt(),
+					animation);
+			if (sprite.width <= 0 || sprite.height <= 0)
+			{
+				DDB.log.error("Sprite {} of sheet {} has an empty size ({}x{})", entry.getKey(), name, sprite.width, sprite.height);
+				continue;
+			}
+			if (sprite.x < 0 || sprite.y < 0 || sprite.x + sprite.width > image.getWidth() || sprite.y + sprite.height > image.getHeight())
+			{
+				DDB.log.error("Sprite {} is outside of sheet {}", entry.getKey(), name);
+				continue;
+			}
+			sprites.put(entry.getKey(), sprite);
+		}
+	}
+
+	private static class Sprite
+	{
+		private final int x, y, width, height;
+		private final AnimationMetadataSection animation;
+
+		public Sprite(int x, int y, int width, int height, AnimationMetadataSection animation)
+		{
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.animation = animation;
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 Ordinastie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.malisis.ddb.texture;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Dimensions of a texture, read from the header of its file without decoding any pixel.<br>
+ * For PNG files, only the signature and the <code>IHDR</code> chunk are read.
+ *
+ * @author Ordinastie
+ *
+ */
+public class TextureHeader
+{
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final int IHDR = 0x49484452;
+
+	/** Largest frame width allowed, set with the <code>ddb.maxTextureSize</code> system property. */
+	public static final int maxSize = Integer.getInteger("ddb.maxTextureSize", 4096);
+
+	private final int width;
+	private final int height;
+
+	TextureHeader(int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * Gets the height of the whole image, all frames included.
+	 *
+	 * @return the height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Gets the number of square frames in the image.<br>
+	 * DDB always slices the image in frames as high as it is wide, the <code>.mcmeta</code> only sets the order and timing of those
+	 * frames, so it does not need to be read.
+	 *
+	 * @return the frame count
+	 */
+	public int getFrameCount()
+	{
+		return Math.max(1, height / width);
+	}
+
+	/**
+	 * Gets the number of pixels the texture takes in the atlas, which only holds one square frame of it.
+	 *
+	 * @return the atlas pixels
+	 */
+	public long getAtlasPixels()
+	{
+		return (long) width * width;
+	}
+
+	/**
+	 * Checks whether the texture is too large to be loaded.<br>
+	 * A texture is rejected when its width exceeds {@link #maxSize}, or when the whole image holds more pixels than a {@link #maxSize}
+	 * square.
+	 *
+	 * @return true, if oversized
+	 */
+	public boolean isOversized()
+	{
+		return width > maxSize || (long) width * height > (long) maxSize * maxSize;
+	}
+
+	@Override
+	public String toString()
+	{
+		return width + "x" + height;
+	}
+
+	/**
+	 * Reads the header of the PNG <i>stream</i>.<br>
+	 * Only the first 24 bytes are read.
+	 *
+	 * @param stream the stream
+	 * @return the texture header
+	 * @throws IOException if the data is not a valid PNG
+	 */
+	public static TextureHeader readPng(InputStream stream) throws IOException
+	{
+		DataInputStream in = new DataInputStream(stream);
+		byte[] signature = new byte[PNG_SIGNATURE.length];
+		in.readFully(signature);
+		if (!Arrays.equals(signature, PNG_SIGNATURE))
+			throw new IOException("Not a PNG file");
+
+		in.readInt(); //chunk length
+		if (in.readInt() != IHDR)
+			throw new IOException("Missing IHDR chunk");
+
+		int width = in.readInt();
+		int height = in.readInt();
+		if (width <= 0 || height <= 0)
+			throw new IOException("Invalid PNG size " + width + "x" + height);
+		return new TextureHeader(width, height);
+	}
+}